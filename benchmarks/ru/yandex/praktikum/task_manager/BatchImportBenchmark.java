@@ -0,0 +1,77 @@
+package ru.yandex.praktikum.task_manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static ru.yandex.praktikum.task_manager.TaskManagerBenchmark.DURATION;
+import static ru.yandex.praktikum.task_manager.TaskManagerBenchmark.slot;
+
+// Импорт пачки задач: по одной через createTask против одного applyBatch
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BatchImportBenchmark {
+
+    @Param({"1000"})
+    private int size;
+
+    @Param({"SNAPSHOT", "JOURNAL"})
+    private SaveMode saveMode;
+
+    private File taskFile;
+    private FileBackedTaskManager taskManager;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        taskFile = File.createTempFile("taskFile", ".csv");
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(saveMode);
+        settings.setCompactionThreshold(Integer.MAX_VALUE);
+        taskManager = new FileBackedTaskManager(taskFile, settings);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        taskManager.close();
+        taskFile.delete();
+        taskManager.getJournalFile().delete();
+    }
+
+    @Benchmark
+    public void singleRequests() {
+        for (int i = 0; i < size; i++) {
+            taskManager.createTask(new Task("Задача " + i, "Описание", slot(i), DURATION));
+        }
+    }
+
+    @Benchmark
+    public List<UUID> batch() {
+        List<BatchCommand> commands = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            commands.add(BatchCommand.create(new Task("Задача " + i, "Описание", slot(i), DURATION)));
+        }
+        return taskManager.applyBatch(commands);
+    }
+}
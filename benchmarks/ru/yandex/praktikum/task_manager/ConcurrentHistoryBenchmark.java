@@ -0,0 +1,55 @@
+package ru.yandex.praktikum.task_manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ConcurrentHistoryBenchmark {
+    private static final int TASKS_COUNT = 10_000;
+
+    @Param({"SYNCHRONIZED", "STRIPED"})
+    private String recording;
+
+    private HistoryManager historyManager;
+    private Task[] tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        historyManager = "STRIPED".equals(recording)
+                ? new ConcurrentHistoryManager(Managers.getDefaultHistory())
+                : new SynchronizedHistoryManager(Managers.getDefaultHistory());
+        tasks = new Task[TASKS_COUNT];
+        for (int i = 0; i < TASKS_COUNT; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", null, 0L);
+            tasks[i].setId(UUID.randomUUID());
+        }
+    }
+
+    // Каждый getTask в менеджере задач записывает просмотр
+    @Benchmark
+    public void recordView() {
+        historyManager.add(tasks[ThreadLocalRandom.current().nextInt(TASKS_COUNT)]);
+    }
+}
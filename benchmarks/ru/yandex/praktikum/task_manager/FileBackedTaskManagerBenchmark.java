@@ -0,0 +1,96 @@
+package ru.yandex.praktikum.task_manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.praktikum.task_tracker.Statuses;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static ru.yandex.praktikum.task_manager.TaskManagerBenchmark.DURATION;
+import static ru.yandex.praktikum.task_manager.TaskManagerBenchmark.slot;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileBackedTaskManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"SNAPSHOT", "JOURNAL"})
+    private SaveMode saveMode;
+
+    @Param({"CSV", "BINARY"})
+    private SnapshotFormat snapshotFormat;
+
+    private PersistenceSettings settings;
+
+    private File taskFile;
+    private FileBackedTaskManager taskManager;
+    private final List<UUID> ids = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        taskFile = File.createTempFile("taskFile", ".csv");
+        settings = new PersistenceSettings();
+        settings.setSaveMode(saveMode);
+        settings.setSnapshotFormat(snapshotFormat);
+        settings.setCompactionThreshold(Integer.MAX_VALUE);
+        taskManager = new FileBackedTaskManager(taskFile, settings);
+        ids.clear();
+        // Заполняем хранилище в обход сохранения, иначе подготовка при SNAPSHOT займет O(n^2)
+        for (int i = 0; i < size; i++) {
+            Task task = new Task("Задача " + i, "Описание", slot(i), DURATION);
+            task.setId(UUID.randomUUID());
+            taskManager.tasks.put(task.getId(), task);
+            taskManager.sortedTasks.add(task);
+            ids.add(task.getId());
+        }
+        taskManager.compact();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taskManager.close();
+        taskFile.delete();
+        taskManager.getJournalFile().delete();
+    }
+
+    @Benchmark
+    public void updateTask() {
+        next = next + 1 == size ? 0 : next + 1;
+        taskManager.updateTask(new Task("Задача " + next, "Обновлено", ids.get(next), Statuses.IN_PROGRESS,
+                slot(next), DURATION));
+    }
+
+    @Benchmark
+    public void save() {
+        taskManager.compact();
+    }
+
+    @Benchmark
+    public FileBackedTaskManager loadFromFile() {
+        return FileBackedTaskManager.loadFromFile(taskFile, settings);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.praktikum.task_manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryManagerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    @Param({"LINKED", "ARRAY"})
+    private HistoryStorage storage;
+
+    private HistoryManager historyManager;
+    private Task[] tasks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HistorySettings settings = new HistorySettings();
+        settings.setStorage(storage);
+        historyManager = Managers.getHistory(settings);
+        tasks = new Task[size];
+        for (int i = 0; i < size; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", null, 0L);
+            tasks[i].setId(UUID.randomUUID());
+            historyManager.add(tasks[i]);
+        }
+    }
+
+    // Повторный просмотр: узел переносится в конец истории
+    @Benchmark
+    public Task addViewedTask() {
+        Task task = nextTask();
+        historyManager.add(task);
+        return task;
+    }
+
+    @Benchmark
+    public Task removeAndAddTask() {
+        Task task = nextTask();
+        historyManager.remove(task.getId());
+        historyManager.add(task);
+        return task;
+    }
+
+    @Benchmark
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    private Task nextTask() {
+        next = next + 1 == size ? 0 : next + 1;
+        return tasks[next];
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.praktikum.task_manager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.praktikum.task_tracker.Statuses;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final long DURATION = 15L;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private TaskManager taskManager;
+    private final List<UUID> ids = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskManager = new InMemoryTaskManager();
+        ids.clear();
+        for (int i = 0; i < size; i++) {
+            ids.add(taskManager.createTask(new Task("Задача " + i, "Описание", slot(i), DURATION)));
+        }
+    }
+
+    // Задачи занимают каждый второй слот, новая задача встает в свободный промежуток
+    @Benchmark
+    public UUID createAndRemoveTask() {
+        int index = nextIndex();
+        UUID id = taskManager.createTask(new Task("Новая", "Описание", slot(index).plusMinutes(DURATION), DURATION));
+        taskManager.removeTask(id);
+        return id;
+    }
+
+    @Benchmark
+    public UUID updateTask() {
+        int index = nextIndex();
+        UUID id = ids.get(index);
+        taskManager.updateTask(new Task("Задача " + index, "Обновлено", id, Statuses.IN_PROGRESS, slot(index),
+                DURATION));
+        return id;
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return taskManager.getPrioritizedTasks();
+    }
+
+    // Окно из 16 слотов, с каждым вызовом сдвигается по расписанию
+    @Benchmark
+    public List<Task> getPrioritizedWindow() {
+        int index = nextIndex();
+        return taskManager.getPrioritizedTasks(slot(index), slot(index + 16));
+    }
+
+    @Benchmark
+    public List<Task> getUpcoming() {
+        return taskManager.getUpcoming(slot(nextIndex()), 16);
+    }
+
+    @Benchmark
+    public LocalDateTime findFreeSlot() {
+        return taskManager.findFreeSlot(Duration.ofMinutes(DURATION), slot(nextIndex()).plusMinutes(5), null);
+    }
+
+    private int nextIndex() {
+        next = next + 1 == size ? 0 : next + 1;
+        return next;
+    }
+
+    static LocalDateTime slot(int index) {
+        return START.plusMinutes(index * 2 * DURATION);
+    }
+}
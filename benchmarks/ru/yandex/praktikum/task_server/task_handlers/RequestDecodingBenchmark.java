@@ -0,0 +1,68 @@
+package ru.yandex.praktikum.task_server.task_handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.praktikum.task_server.task_serializers.GsonProvider;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static ru.yandex.praktikum.Constants.ID;
+
+// Разбор тела POST /tasks на обновление: прежний путь в два прохода против потокового TaskRequest
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestDecodingBenchmark {
+
+    private final Gson gson = GsonProvider.getGson(JsonFormat.PRETTY);
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Task task = new Task("Задача", "Описание задачи", LocalDateTime.of(2024, 1, 1, 0, 0), 15L);
+        task.setId(UUID.randomUUID());
+        body = gson.toJson(task).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Task twoPass() {
+        String text = new String(body, StandardCharsets.UTF_8);
+        JsonObject object = JsonParser.parseString(text).getAsJsonObject();
+        if (object.get(ID) == null) {
+            return null;
+        }
+        return gson.fromJson(text, Task.class);
+    }
+
+    @Benchmark
+    public Task streaming() throws IOException {
+        TaskRequest request = TaskRequest.read(new ByteArrayInputStream(body));
+        if (request.getId() == null) {
+            return null;
+        }
+        return new Task(request.getName(), request.getDescription(), request.getId(), request.getStatus(),
+                request.getStartTime(), request.getDuration());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.praktikum.task_server.task_serializers;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static ru.yandex.praktikum.Constants.TASKS;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonBenchmark {
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    @Param({"PRETTY", "COMPACT"})
+    private JsonFormat format;
+
+    private Gson gson;
+    private final List<Task> tasks = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gson = GsonProvider.getGson(format);
+        tasks.clear();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task("Задача " + i, "Описание задачи", start.plusMinutes(i * 30L), 15L);
+            task.setId(UUID.randomUUID());
+            tasks.add(task);
+        }
+    }
+
+    // Тот же путь, что и BaseHttpHandler.sendList
+    @Benchmark
+    public void streamTaskList() throws IOException {
+        try (JsonWriter writer = gson.newJsonWriter(Writer.nullWriter())) {
+            writer.beginObject();
+            writer.name(TASKS);
+            writer.beginArray();
+            for (Task task : tasks) {
+                gson.toJson(task, task.getClass(), writer);
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+    }
+
+    @Benchmark
+    public String serializeTaskToString() {
+        return gson.toJson(tasks.get(size / 2));
+    }
+}
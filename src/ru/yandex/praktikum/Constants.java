@@ -23,7 +23,18 @@ public interface Constants {
     String SUBTASKS = "subtasks";
     String HISTORY = "history";
     String PRIORITIZED = "prioritized";
+    String BATCH = "batch";
     String RESULT = "result";
+    String PRETTY = "pretty";
+    String CLIENT_ID = "X-Client-Id";
+    String LIMIT = "limit";
+    String AFTER = "after";
+    String NEWEST_FIRST = "newestFirst";
+    String FROM = "from";
+    String TO = "to";
+    String FREE = "free";
+    String NOT_BEFORE = "notBefore";
+    String NOT_AFTER = "notAfter";
 
     String NAME = "name";
     String DESCRIPTION = "description";
@@ -31,6 +42,11 @@ public interface Constants {
     String START_TIME = "startTime";
     String DURATION = "duration";
     String EPIC_ID = "epicId";
+    String STATUS = "status";
+    String OPERATION = "operation";
+    String TYPE = "type";
+    String IDS = "ids";
+    String CONFLICTS = "conflicts";
 
     String ERROR_MESSAGE = "errorMessage";
     String ERROR_DESCRIPTION = "errorDescription";
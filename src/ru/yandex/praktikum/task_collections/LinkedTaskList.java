@@ -1,6 +1,7 @@
 package ru.yandex.praktikum.task_collections;
 
 import java.util.ArrayList;
+import java.util.List;
 
 public class LinkedTaskList<T> {
     private Node<T> firstTask;
@@ -27,6 +28,26 @@ public class LinkedTaskList<T> {
         return tasks;
     }
 
+    // Страница списка после узла after (или с начала/конца списка, если after == null), без обхода всего списка
+    public List<T> getTasks(Node<T> after, int limit, boolean newestFirst) {
+        List<T> tasks = new ArrayList<>(Math.min(limit, 64));
+        Node<T> currentNode;
+        if (after == null) {
+            currentNode = newestFirst ? lastTask : firstTask;
+        } else {
+            currentNode = newestFirst ? after.prev : after.next;
+        }
+        while (currentNode != null && tasks.size() < limit) {
+            tasks.add(currentNode.data);
+            currentNode = newestFirst ? currentNode.prev : currentNode.next;
+        }
+        return tasks;
+    }
+
+    public Node<T> getFirstTask() {
+        return firstTask;
+    }
+
     public Node<T> getLastTask() {
         return lastTask;
     }
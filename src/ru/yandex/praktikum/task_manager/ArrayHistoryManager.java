@@ -0,0 +1,242 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.exceptions.NotFoundException;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static ru.yandex.praktikum.Constants.NOT_FOUND;
+
+/*
+ * История на массивах: двусвязный список по int-индексам слотов (освобожденные слоты переиспользуются
+ * через список свободных) и таблица с открытой адресацией id -> слот, где id хранится двумя long.
+ * После того как массивы выросли до рабочего размера, add и remove ничего не аллоцируют.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    private final int maxEntries;
+    private final long maxAgeMillis;
+    private final Clock clock;
+
+    private Task[] tasks;
+    private long[] mostBits;
+    private long[] leastBits;
+    private long[] viewTimes;
+    private int[] next;
+    private int[] prev;
+    private int[] table;
+    private int head = NIL;
+    private int tail = NIL;
+    private int free = NIL;
+    private int used;
+    private int size;
+
+    public ArrayHistoryManager() {
+        this(new HistorySettings());
+    }
+
+    public ArrayHistoryManager(HistorySettings settings) {
+        maxEntries = settings.getMaxEntries();
+        maxAgeMillis = settings.getMaxAge().toMillis();
+        clock = settings.getClock();
+        int capacity = maxEntries > 0 ? Math.min(maxEntries + 1, MAX_INITIAL_CAPACITY) : DEFAULT_CAPACITY;
+        tasks = new Task[capacity];
+        mostBits = new long[capacity];
+        leastBits = new long[capacity];
+        viewTimes = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        table = new int[tableSize(capacity)];
+        Arrays.fill(table, NIL);
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        UUID id = task.getId();
+        long most = id.getMostSignificantBits();
+        long least = id.getLeastSignificantBits();
+        int bucket = findBucket(most, least);
+        int slot;
+        if (bucket != NIL) {
+            slot = table[bucket];
+            unlink(slot);
+        } else {
+            slot = allocate();
+            mostBits[slot] = most;
+            leastBits[slot] = least;
+            insertIntoTable(slot);
+            size++;
+        }
+        tasks[slot] = task;
+        linkLast(slot);
+        if (maxAgeMillis > 0) {
+            viewTimes[slot] = clock.millis();
+            evictExpired();
+        }
+        while (maxEntries > 0 && size > maxEntries) {
+            removeSlot(head);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return getHistory(null, Integer.MAX_VALUE, false);
+    }
+
+    @Override
+    public List<Task> getHistory(UUID after, int limit, boolean newestFirst) {
+        if (maxAgeMillis > 0) {
+            evictExpired();
+        }
+        int slot;
+        if (after == null) {
+            slot = newestFirst ? tail : head;
+        } else {
+            int bucket = findBucket(after.getMostSignificantBits(), after.getLeastSignificantBits());
+            if (bucket == NIL) {
+                throw new NotFoundException("Задачи нет в истории просмотров", NOT_FOUND);
+            }
+            slot = newestFirst ? prev[table[bucket]] : next[table[bucket]];
+        }
+        List<Task> history = new ArrayList<>(Math.min(Math.min(limit, size), 1024));
+        while (slot != NIL && history.size() < limit) {
+            history.add(tasks[slot]);
+            slot = newestFirst ? prev[slot] : next[slot];
+        }
+        return history;
+    }
+
+    @Override
+    public void remove(UUID id) {
+        int bucket = findBucket(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (bucket != NIL) {
+            removeSlot(table[bucket]);
+        }
+    }
+
+    private void removeSlot(int slot) {
+        removeFromTable(findBucket(mostBits[slot], leastBits[slot]));
+        unlink(slot);
+        tasks[slot] = null;
+        next[slot] = free;
+        free = slot;
+        size--;
+    }
+
+    private void evictExpired() {
+        long oldestAllowed = clock.millis() - maxAgeMillis;
+        while (head != NIL && viewTimes[head] < oldestAllowed) {
+            removeSlot(head);
+        }
+    }
+
+    private int allocate() {
+        if (free != NIL) {
+            int slot = free;
+            free = next[slot];
+            return slot;
+        }
+        if (used == tasks.length) {
+            grow();
+        }
+        return used++;
+    }
+
+    private void linkLast(int slot) {
+        prev[slot] = tail;
+        next[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] == NIL) {
+            head = next[slot];
+        } else {
+            next[prev[slot]] = next[slot];
+        }
+        if (next[slot] == NIL) {
+            tail = prev[slot];
+        } else {
+            prev[next[slot]] = prev[slot];
+        }
+    }
+
+    private int findBucket(long most, long least) {
+        int mask = table.length - 1;
+        int bucket = hash(most, least) & mask;
+        while (table[bucket] != NIL) {
+            int slot = table[bucket];
+            if (mostBits[slot] == most && leastBits[slot] == least) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return NIL;
+    }
+
+    private void insertIntoTable(int slot) {
+        int mask = table.length - 1;
+        int bucket = hash(mostBits[slot], leastBits[slot]) & mask;
+        while (table[bucket] != NIL) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = slot;
+    }
+
+    // Удаление с обратным сдвигом: записи за дырой, чья цепочка проб через нее проходит, сдвигаются назад
+    private void removeFromTable(int bucket) {
+        int mask = table.length - 1;
+        int hole = bucket;
+        int current = (hole + 1) & mask;
+        while (table[current] != NIL) {
+            int slot = table[current];
+            int home = hash(mostBits[slot], leastBits[slot]) & mask;
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                table[hole] = slot;
+                hole = current;
+            }
+            current = (current + 1) & mask;
+        }
+        table[hole] = NIL;
+    }
+
+    private void grow() {
+        int capacity = tasks.length * 2;
+        tasks = Arrays.copyOf(tasks, capacity);
+        mostBits = Arrays.copyOf(mostBits, capacity);
+        leastBits = Arrays.copyOf(leastBits, capacity);
+        viewTimes = Arrays.copyOf(viewTimes, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        table = new int[tableSize(capacity)];
+        Arrays.fill(table, NIL);
+        for (int slot = head; slot != NIL; slot = next[slot]) {
+            insertIntoTable(slot);
+        }
+    }
+
+    // Заполнение таблицы не больше половины, чтобы цепочки проб оставались короткими
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    private static int hash(long most, long least) {
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.task_tracker.Epic;
+import ru.yandex.praktikum.task_tracker.Subtask;
+import ru.yandex.praktikum.task_tracker.Task;
+import ru.yandex.praktikum.task_tracker.TaskTypes;
+
+import java.util.UUID;
+
+public class BatchCommand {
+    private final BatchOperation operation;
+    private final TaskTypes type;
+    private final Task item;
+    private final UUID id;
+
+    private BatchCommand(BatchOperation operation, TaskTypes type, Task item, UUID id) {
+        this.operation = operation;
+        this.type = type;
+        this.item = item;
+        this.id = id;
+    }
+
+    public static BatchCommand create(Task item) {
+        return new BatchCommand(BatchOperation.CREATE, typeOf(item), item, item.getId());
+    }
+
+    public static BatchCommand update(Task item) {
+        return new BatchCommand(BatchOperation.UPDATE, typeOf(item), item, item.getId());
+    }
+
+    public static BatchCommand delete(TaskTypes type, UUID id) {
+        return new BatchCommand(BatchOperation.DELETE, type, null, id);
+    }
+
+    private static TaskTypes typeOf(Task item) {
+        if (item instanceof Epic) {
+            return TaskTypes.EPIC;
+        }
+        return item instanceof Subtask ? TaskTypes.SUBTASK : TaskTypes.TASK;
+    }
+
+    public BatchOperation getOperation() {
+        return operation;
+    }
+
+    public TaskTypes getType() {
+        return type;
+    }
+
+    public Task getItem() {
+        return item;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.yandex.praktikum.task_manager;
+
+public enum BatchOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,193 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.exceptions.ManagerUploadException;
+import ru.yandex.praktikum.task_tracker.Epic;
+import ru.yandex.praktikum.task_tracker.Statuses;
+import ru.yandex.praktikum.task_tracker.Subtask;
+import ru.yandex.praktikum.task_tracker.Task;
+import ru.yandex.praktikum.task_tracker.TaskTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+ * Бинарный снимок, версия 1:
+ * MAGIC, VERSION, словарь строк (count, затем length + UTF-8 байты), записи (count, затем записи).
+ * Запись: тип, id (два long), индексы имени и описания в словаре, статус, время начала (секунды эпохи UTC
+ * и наносекунды), продолжительность в минутах; у эпика дальше время окончания, у подзадачи - id эпика.
+ * Перечисления хранятся по ordinal, поэтому изменение TaskTypes или Statuses требует новой версии формата.
+ */
+class BinarySnapshot {
+    static final int MAGIC = 0x4B414E42;
+    static final short VERSION = 1;
+
+    private static final int NULL_INDEX = -1;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(File file) {
+        if (file.length() < Integer.BYTES) {
+            return false;
+        }
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            byte[] header = inputStream.readNBytes(Integer.BYTES);
+            return ((header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16 | (header[2] & 0xFF) << 8
+                    | (header[3] & 0xFF)) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static byte[] write(Collection<Epic> epics, Collection<Task> tasks, Collection<Subtask> subtasks) {
+        try {
+            Map<String, Integer> dictionary = new HashMap<>();
+            List<String> strings = new ArrayList<>();
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+            DataOutputStream records = new DataOutputStream(recordBytes);
+            for (Epic epic : epics) {
+                writeRecord(records, epic, TaskTypes.EPIC, dictionary, strings);
+                writeTime(records, epic.getEndTime());
+            }
+            for (Task task : tasks) {
+                writeRecord(records, task, TaskTypes.TASK, dictionary, strings);
+            }
+            for (Subtask subtask : subtasks) {
+                writeRecord(records, subtask, TaskTypes.SUBTASK, dictionary, strings);
+                writeId(records, subtask.getEpicId());
+            }
+
+            ByteArrayOutputStream snapshotBytes = new ByteArrayOutputStream(recordBytes.size() + strings.size() * 16);
+            DataOutputStream snapshot = new DataOutputStream(snapshotBytes);
+            snapshot.writeInt(MAGIC);
+            snapshot.writeShort(VERSION);
+            snapshot.writeInt(strings.size());
+            for (String string : strings) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                snapshot.writeInt(bytes.length);
+                snapshot.write(bytes);
+            }
+            snapshot.writeInt(epics.size() + tasks.size() + subtasks.size());
+            recordBytes.writeTo(snapshot);
+            snapshot.flush();
+            return snapshotBytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Элементы возвращаются в порядке записи: эпики, задачи, подзадачи
+    static List<Task> read(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new ManagerUploadException("Файл " + file.getName() + " не является бинарным снимком задач");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new ManagerUploadException("Неподдерживаемая версия бинарного снимка: " + version);
+            }
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int count = buffer.getInt();
+            List<Task> items = new ArrayList<>(count);
+            TaskTypes[] types = TaskTypes.values();
+            Statuses[] statuses = Statuses.values();
+            for (int i = 0; i < count; i++) {
+                TaskTypes type = types[buffer.get()];
+                UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                String name = stringAt(strings, buffer.getInt());
+                String description = stringAt(strings, buffer.getInt());
+                byte statusIndex = buffer.get();
+                Statuses status = statusIndex < 0 ? null : statuses[statusIndex];
+                LocalDateTime startTime = readTime(buffer);
+                long durationInMinutes = buffer.getLong();
+                switch (type) {
+                    case EPIC:
+                        items.add(new Epic(name, description, id, status, startTime, durationInMinutes,
+                                readTime(buffer)));
+                        break;
+                    case TASK:
+                        items.add(new Task(name, description, id, status, startTime, durationInMinutes));
+                        break;
+                    case SUBTASK:
+                        UUID epicId = new UUID(buffer.getLong(), buffer.getLong());
+                        items.add(new Subtask(name, description, id, status, startTime, durationInMinutes, epicId));
+                        break;
+                }
+            }
+            return items;
+        } catch (IOException | BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new ManagerUploadException("Произошла ошибка при восстановении задач из файла " + file.getName());
+        }
+    }
+
+    private static void writeRecord(DataOutputStream records, Task task, TaskTypes type,
+                                    Map<String, Integer> dictionary, List<String> strings) throws IOException {
+        records.writeByte(type.ordinal());
+        writeId(records, task.getId());
+        records.writeInt(indexOf(task.getName(), dictionary, strings));
+        records.writeInt(indexOf(task.getDescription(), dictionary, strings));
+        records.writeByte(task.getStatus() == null ? NULL_INDEX : task.getStatus().ordinal());
+        writeTime(records, task.getStartTime());
+        records.writeLong(task.getDuration().toMinutes());
+    }
+
+    private static int indexOf(String value, Map<String, Integer> dictionary, List<String> strings) {
+        if (value == null) {
+            return NULL_INDEX;
+        }
+        return dictionary.computeIfAbsent(value, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+
+    private static String stringAt(String[] strings, int index) {
+        return index == NULL_INDEX ? null : strings[index];
+    }
+
+    private static void writeId(DataOutputStream records, UUID id) throws IOException {
+        records.writeLong(id.getMostSignificantBits());
+        records.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static void writeTime(DataOutputStream records, LocalDateTime time) throws IOException {
+        if (time == null) {
+            records.writeLong(NULL_TIME);
+            return;
+        }
+        records.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        records.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(MappedByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        if (seconds == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,163 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/*
+ * Просмотры записываются без блокировок в кольцевые буферы, выбираемые по потоку, а в упорядоченную историю
+ * (обычный однопоточный HistoryManager) переносятся пачками под блокировкой. Переносит тот поток, которому
+ * удалось взять блокировку через tryLock, остальные не ждут. Перед чтением и удалением буферы переносятся
+ * полностью, поэтому завершенный просмотр всегда виден в getHistory. Порядок сохраняется внутри буфера,
+ * а между просмотрами из разных потоков, сделанными почти одновременно, он приблизительный.
+ * Просмотр, прочитанный до удаления задачи, может попасть в буфер уже после него, поэтому при переносе
+ * каждый просмотр сверяется с хранилищем (stored) под той же блокировкой, под которой идет удаление.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+    private static final int BUFFER_SIZE = 32;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+
+    private final HistoryManager history;
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final ViewBuffer[] buffers;
+    private final Predicate<UUID> stored;
+
+    public ConcurrentHistoryManager(HistoryManager history) {
+        this(history, id -> true);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager history, Predicate<UUID> stored) {
+        this(history, Runtime.getRuntime().availableProcessors() * 2, stored);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager history, int stripes) {
+        this(history, stripes, id -> true);
+    }
+
+    public ConcurrentHistoryManager(HistoryManager history, int stripes, Predicate<UUID> stored) {
+        this.history = history;
+        this.stored = stored;
+        buffers = new ViewBuffer[Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new ViewBuffer();
+        }
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        ViewBuffer buffer = buffers[stripe()];
+        int size;
+        while ((size = buffer.offer(task)) < 0) {
+            drainLock.lock();
+            try {
+                drainAll();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+        if (size >= DRAIN_THRESHOLD && drainLock.tryLock()) {
+            try {
+                drainAll();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        drainLock.lock();
+        try {
+            drainAll();
+            return history.getHistory();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory(UUID after, int limit, boolean newestFirst) {
+        drainLock.lock();
+        try {
+            drainAll();
+            return history.getHistory(after, limit, newestFirst);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    // Просмотры в буферах переносятся до удаления, а опоздавшие отсеет проверка stored при следующем переносе
+    @Override
+    public void remove(UUID id) {
+        drainLock.lock();
+        try {
+            drainAll();
+            history.remove(id);
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void drainAll() {
+        for (ViewBuffer buffer : buffers) {
+            buffer.drainTo(history, stored);
+        }
+    }
+
+    private int stripe() {
+        long hash = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (buffers.length - 1);
+    }
+
+    /*
+     * Ограниченный буфер для многих писателей и одного читателя (читатель работает только под drainLock).
+     * Писатель резервирует позицию через CAS счетчика записи и публикует элемент, читатель останавливается
+     * на первой еще не опубликованной позиции.
+     */
+    private static class ViewBuffer {
+        private final AtomicReferenceArray<Task> views = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private final AtomicLong readCounter = new AtomicLong();
+
+        // Возвращает заполненность буфера после записи или -1, если буфер полон
+        int offer(Task task) {
+            while (true) {
+                long head = readCounter.get();
+                long tail = writeCounter.get();
+                if (tail - head >= BUFFER_SIZE) {
+                    return -1;
+                }
+                if (writeCounter.compareAndSet(tail, tail + 1)) {
+                    views.lazySet((int) (tail & (BUFFER_SIZE - 1)), task);
+                    return (int) (tail + 1 - head);
+                }
+            }
+        }
+
+        void drainTo(HistoryManager history, Predicate<UUID> stored) {
+            long head = readCounter.get();
+            long tail = writeCounter.get();
+            while (head != tail) {
+                int index = (int) (head & (BUFFER_SIZE - 1));
+                Task task = views.get(index);
+                if (task == null) {
+                    break;
+                }
+                views.lazySet(index, null);
+                if (stored.test(task.getId())) {
+                    history.add(task);
+                }
+                head++;
+            }
+            readCounter.lazySet(head);
+        }
+    }
+}
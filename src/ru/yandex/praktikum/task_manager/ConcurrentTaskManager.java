@@ -0,0 +1,259 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.exceptions.NotFoundException;
+import ru.yandex.praktikum.task_tracker.Epic;
+import ru.yandex.praktikum.task_tracker.Subtask;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static ru.yandex.praktikum.Constants.NOT_FOUND;
+
+/*
+ * Чтения идут напрямую в ConcurrentHashMap/ConcurrentSkipListSet без блокировок. Эпики меняются на месте под
+ * блокировкой полосы, поэтому наружу отдаются их копии, снятые под блокировкой чтения той же полосы.
+ * Изменения подзадач и эпиков блокируют только полосу (stripe) своего эпика, поэтому записи в разные эпики
+ * идут параллельно. Проверка пересечения и вставка задачи со временем выполняются под общей блокировкой
+ * расписания — иначе две параллельные записи могли бы занять один и тот же интервал.
+ * Порядок захвата: полоса эпика, затем расписание.
+ * Просмотры пишутся в историю без блокировок через ConcurrentHistoryManager.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantReadWriteLock[] epicLocks;
+    private final Lock scheduleLock = new ReentrantLock();
+
+    public ConcurrentTaskManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public ConcurrentTaskManager(int stripes) {
+        this(stripes, Managers.getDefaultHistory());
+    }
+
+    public ConcurrentTaskManager(int stripes, HistoryManager history) {
+        this(stripes, history, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private ConcurrentTaskManager(int stripes, HistoryManager history, Map<UUID, Epic> epicTasks,
+                                  Map<UUID, Task> tasks, Map<UUID, Subtask> subtasks) {
+        super(epicTasks, tasks, subtasks, new ConcurrentSkipListSet<>(Task::compareStartTime),
+                concurrentHistory(history, id -> id != null
+                        && (tasks.containsKey(id) || subtasks.containsKey(id) || epicTasks.containsKey(id))),
+                new ConcurrentHashMap<>());
+        epicLocks = new ReentrantReadWriteLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            epicLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public void clearEpicTasks() {
+        withAllEpics(() -> withSchedule(() -> {
+            super.clearEpicTasks();
+            return null;
+        }));
+    }
+
+    @Override
+    public void clearTasks() {
+        withSchedule(() -> {
+            super.clearTasks();
+            return null;
+        });
+    }
+
+    @Override
+    public void clearSubtasks() {
+        withAllEpics(() -> withSchedule(() -> {
+            super.clearSubtasks();
+            return null;
+        }));
+    }
+
+    @Override
+    public UUID createTask(Task task) {
+        if (!isScheduled(task)) {
+            return super.createTask(task);
+        }
+        return withSchedule(() -> super.createTask(task));
+    }
+
+    @Override
+    public UUID createSubtask(Subtask subtask) {
+        return withEpic(subtask.getEpicId(), () -> withSchedule(() -> super.createSubtask(subtask)));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        withEpic(epic.getId(), () -> {
+            super.updateEpic(epic);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        withSchedule(() -> {
+            super.updateTask(task);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        withEpic(subtask.getEpicId(), () -> withSchedule(() -> {
+            super.updateSubtask(subtask);
+            return null;
+        }));
+    }
+
+    @Override
+    public boolean removeEpic(UUID id) {
+        return withEpic(id, () -> super.removeEpic(id));
+    }
+
+    @Override
+    public boolean removeTask(UUID id) {
+        return withSchedule(() -> super.removeTask(id));
+    }
+
+    @Override
+    public boolean removeSubtask(UUID id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            throw new NotFoundException("Такой подзадачи нет", NOT_FOUND);
+        }
+        return withEpic(subtask.getEpicId(), () -> super.removeSubtask(id));
+    }
+
+    // Пакет может затронуть любые эпики, поэтому берет все полосы и расписание
+    @Override
+    public List<UUID> applyBatch(List<BatchCommand> commands) {
+        return withAllEpics(() -> withSchedule(() -> super.applyBatch(commands)));
+    }
+
+    @Override
+    public List<Epic> getEpicTasks() {
+        List<Epic> epics = new ArrayList<>(epicTasks.size());
+        for (Epic epic : epicTasks.values()) {
+            epics.add(snapshot(epic));
+        }
+        return epics;
+    }
+
+    @Override
+    public Epic getEpic(UUID id) {
+        Epic epic = super.peekEpic(id);
+        manager.add(epic);
+        return snapshot(epic);
+    }
+
+    @Override
+    public Epic peekEpic(UUID id) {
+        return snapshot(super.peekEpic(id));
+    }
+
+    @Override
+    public List<Task> getTaskHistory() {
+        return snapshots(super.getTaskHistory());
+    }
+
+    @Override
+    public List<Task> getTaskHistory(UUID after, int limit, boolean newestFirst) {
+        return snapshots(super.getTaskHistory(after, limit, newestFirst));
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtask(UUID id) {
+        Lock readLock = epicLock(id).readLock();
+        readLock.lock();
+        try {
+            return super.getEpicSubtask(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Клиент истории задается для потока запроса, поэтому просмотры по клиентам нельзя переносить из буферов
+    // в другом потоке. Просмотр попадает в историю, только если задача еще есть в хранилище: чтение задачи
+    // и запись просмотра не атомарны относительно удаления
+    private static HistoryManager concurrentHistory(HistoryManager history, Predicate<UUID> stored) {
+        if (history instanceof PerClientHistoryManager) {
+            return new SynchronizedHistoryManager(history, stored);
+        }
+        return new ConcurrentHistoryManager(history, stored);
+    }
+
+    private List<Task> snapshots(List<Task> items) {
+        List<Task> copies = new ArrayList<>(items.size());
+        for (Task item : items) {
+            copies.add(item instanceof Epic epic ? snapshot(epic) : item);
+        }
+        return copies;
+    }
+
+    private Epic snapshot(Epic epic) {
+        Lock readLock = epicLock(epic.getId()).readLock();
+        readLock.lock();
+        try {
+            Epic copy = new Epic(epic.getName(), epic.getDescription(), epic.getId(), epic.getStatus(),
+                    epic.getStartTime(), epic.getDuration().toMinutes(), epic.getEndTime());
+            epic.getIdSubtasks().forEach(copy::addSubtask);
+            return copy;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private boolean isScheduled(Task task) {
+        return task.getStartTime() != null && !task.getDuration().isZero();
+    }
+
+    private ReentrantReadWriteLock epicLock(UUID epicId) {
+        return epicLocks[Math.floorMod(epicId == null ? 0 : epicId.hashCode(), epicLocks.length)];
+    }
+
+    private <T> T withEpic(UUID epicId, Supplier<T> action) {
+        Lock writeLock = epicLock(epicId).writeLock();
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private <T> T withAllEpics(Supplier<T> action) {
+        for (ReentrantReadWriteLock lock : epicLocks) {
+            lock.writeLock().lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = epicLocks.length - 1; i >= 0; i--) {
+                epicLocks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    private <T> T withSchedule(Supplier<T> action) {
+        scheduleLock.lock();
+        try {
+            return action.get();
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.exceptions.ManagerUploadException;
+import ru.yandex.praktikum.task_tracker.Epic;
+import ru.yandex.praktikum.task_tracker.Statuses;
+import ru.yandex.praktikum.task_tracker.Subtask;
+import ru.yandex.praktikum.task_tracker.Task;
+import ru.yandex.praktikum.task_tracker.TaskTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ * Файл делится на куски по границам строк, куски разбираются параллельно в ForkJoinPool.
+ * Разбор не трогает состояние менеджера: связывание подзадач с эпиками и построение sortedTasks
+ * выполняются потом в FileBackedTaskManager, поэтому порядок строк в файле не важен.
+ */
+class CsvSnapshotReader {
+    private static final int MIN_CHUNK_BYTES = 64 * 1024;
+
+    private CsvSnapshotReader() {
+    }
+
+    // Элементы возвращаются в порядке строк файла
+    static List<Task> read(File file, int parallelism) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new ManagerUploadException("Произошла ошибка при восстановении задач из файла taskFile.csv");
+        }
+        int start = nextLine(content, 0); //скипаем строку с наименованием полей
+        int chunks = Math.max(1, Math.min(parallelism, (content.length - start) / MIN_CHUNK_BYTES));
+        int[] bounds = new int[chunks + 1];
+        bounds[0] = start;
+        for (int i = 1; i < chunks; i++) {
+            bounds[i] = nextLine(content, Math.max(bounds[i - 1], start + (int) ((long) (content.length - start)
+                    * i / chunks)));
+        }
+        bounds[chunks] = content.length;
+        try {
+            return ForkJoinPool.commonPool().invoke(new ParseTask(content, bounds, 0, chunks));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new ManagerUploadException("Некорректная строка в файле " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    static Task parseRow(String[] taskInfo) {
+        UUID id = UUID.fromString(taskInfo[0]);
+        TaskTypes taskTypes = TaskTypes.valueOf(taskInfo[1]);
+        String name = taskInfo[2];
+        Statuses status = Statuses.valueOf(taskInfo[3]);
+        String description = taskInfo[4];
+        LocalDateTime startTime = parseTime(taskInfo[5]);
+        Long durationInMinutes = Long.parseLong(taskInfo[6]);
+        LocalDateTime endTime = parseTime(taskInfo[7]);
+        switch (taskTypes) {
+            case EPIC:
+                return new Epic(name, description, id, status, startTime, durationInMinutes, endTime);
+            case SUBTASK:
+                return new Subtask(name, description, id, status, startTime, durationInMinutes,
+                        UUID.fromString(taskInfo[8]));
+            default:
+                return new Task(name, description, id, status, startTime, durationInMinutes);
+        }
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return "null".equals(value) ? null : LocalDateTime.parse(value);
+    }
+
+    private static int nextLine(byte[] content, int from) {
+        int position = from;
+        while (position < content.length && content[position] != '\n') {
+            position++;
+        }
+        return Math.min(position + 1, content.length);
+    }
+
+    // Serializable достался от ForkJoinTask: задача живет только внутри загрузки и никогда не сериализуется
+    @SuppressWarnings("serial")
+    private static class ParseTask extends RecursiveTask<List<Task>> {
+        private final byte[] content;
+        private final int[] bounds;
+        private final int from;
+        private final int to;
+
+        private ParseTask(byte[] content, int[] bounds, int from, int to) {
+            this.content = content;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            if (to - from == 1) {
+                List<Task> items = new ArrayList<>();
+                new String(content, bounds[from], bounds[to] - bounds[from], StandardCharsets.UTF_8).lines()
+                        .filter(line -> !line.isEmpty())
+                        .forEach(line -> items.add(parseRow(line.split(","))));
+                return items;
+            }
+            int middle = (from + to) >>> 1;
+            ParseTask left = new ParseTask(content, bounds, from, middle);
+            left.fork();
+            List<Task> items = new ParseTask(content, bounds, middle, to).compute();
+            List<Task> leftItems = left.join();
+            leftItems.addAll(items);
+            return leftItems;
+        }
+    }
+}
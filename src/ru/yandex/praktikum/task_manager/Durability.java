@@ -0,0 +1,13 @@
+package ru.yandex.praktikum.task_manager;
+
+/*
+ * NONE - снимок перезаписывается на месте, без fsync: быстрее всего, но сбой во время записи теряет файл.
+ * ATOMIC - запись во временный файл рядом и атомарное переименование: файл всегда целый, но без fsync
+ * последние изменения могут пропасть при отключении питания.
+ * FSYNC - как ATOMIC, плюс force временного файла и каталога, журнал тоже синхронизируется при каждой записи.
+ */
+public enum Durability {
+    NONE,
+    ATOMIC,
+    FSYNC
+}
@@ -0,0 +1,102 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.task_tracker.Epic;
+import ru.yandex.praktikum.task_tracker.Statuses;
+import ru.yandex.praktikum.task_tracker.Subtask;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/*
+ * Накопленные значения эпика по его подзадачам: счетчики статусов, сумма продолжительностей
+ * и мультимножества начал/окончаний. Вклад каждой подзадачи запоминается отдельно, так как объект подзадачи
+ * может быть изменен снаружи до вызова обновления, и вычесть прежний вклад по нему уже нельзя.
+ */
+class EpicAggregate {
+    private final Map<UUID, Contribution> contributions = new HashMap<>();
+    private final NavigableMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final NavigableMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private int newCount;
+    private int doneCount;
+    private long durationInMinutes;
+
+    void put(Subtask subtask, boolean scheduled) {
+        remove(subtask.getId());
+        Contribution contribution = scheduled
+                ? new Contribution(subtask.getStatus(), subtask.getStartTime(), subtask.getEndTime(),
+                subtask.getDuration().toMinutes())
+                : new Contribution(subtask.getStatus(), null, null, 0L);
+        contributions.put(subtask.getId(), contribution);
+        if (contribution.status == Statuses.NEW) {
+            newCount++;
+        } else if (contribution.status == Statuses.DONE) {
+            doneCount++;
+        }
+        if (contribution.startTime != null) {
+            startTimes.merge(contribution.startTime, 1, Integer::sum);
+            endTimes.merge(contribution.endTime, 1, Integer::sum);
+            durationInMinutes += contribution.durationInMinutes;
+        }
+    }
+
+    void remove(UUID subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+        if (contribution.status == Statuses.NEW) {
+            newCount--;
+        } else if (contribution.status == Statuses.DONE) {
+            doneCount--;
+        }
+        if (contribution.startTime != null) {
+            decrement(startTimes, contribution.startTime);
+            decrement(endTimes, contribution.endTime);
+            durationInMinutes -= contribution.durationInMinutes;
+        }
+    }
+
+    void applyStatus(Epic epic) {
+        if (contributions.isEmpty() || newCount == contributions.size()) {
+            epic.setStatus(Statuses.NEW);
+        } else if (doneCount == contributions.size()) {
+            epic.setStatus(Statuses.DONE);
+        } else {
+            epic.setStatus(Statuses.IN_PROGRESS);
+        }
+    }
+
+    void applyDuration(Epic epic) {
+        if (startTimes.isEmpty()) {
+            epic.setStartTime(null);
+            epic.setDuration(0L);
+            epic.setEndTime(null);
+            return;
+        }
+        epic.setStartTime(startTimes.firstKey());
+        epic.setEndTime(endTimes.lastKey());
+        epic.setDuration(durationInMinutes);
+    }
+
+    private static void decrement(NavigableMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static class Contribution {
+        private final Statuses status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final long durationInMinutes;
+
+        private Contribution(Statuses status, LocalDateTime startTime, LocalDateTime endTime, long durationInMinutes) {
+            this.status = status;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.durationInMinutes = durationInMinutes;
+        }
+    }
+}
@@ -3,7 +3,6 @@ package ru.yandex.praktikum.task_manager;
 import ru.yandex.praktikum.exceptions.ManagerSaveException;
 import ru.yandex.praktikum.exceptions.ManagerUploadException;
 import ru.yandex.praktikum.task_tracker.Epic;
-import ru.yandex.praktikum.task_tracker.Statuses;
 import ru.yandex.praktikum.task_tracker.Subtask;
 import ru.yandex.praktikum.task_tracker.Task;
 import ru.yandex.praktikum.task_tracker.TaskTypes;
@@ -15,160 +14,962 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+
+    private static final String HEADER = "id,type,name,status,description,startTime,durationInMinutes,endTime,epic";
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
 
     private final File taskFile;
+    private final File journalFile;
+    private final File compactingFile;
+    private final SaveMode saveMode;
+    private final SnapshotFormat snapshotFormat;
+    private final int loadParallelism;
+    private final Durability durability;
+    private final int compactionThreshold;
+    private final boolean groupCommit;
+    private final boolean asyncWrites;
+    private final long commitWindowNanos;
+    private final int maxBatchSize;
+    private final int maxPendingOperations;
+    private int journalRecords;
+    /*
+     * Строки CSV-снимка в UTF-8 по id. Изменение задачи сбрасывает ее строку (у подзадачи - и строку эпика,
+     * в которой хранятся статус и время), поэтому снимок форматирует заново только измененные задачи.
+     * Кэш есть только в режиме SNAPSHOT/CSV: журнал пишет снимок лишь при сжатии, а бинарный формат строк не строит.
+     */
+    private final Map<UUID, byte[]> rows;
+    private CommitBatch currentBatch = new CommitBatch();
+    private CommitBatch writingBatch;
+    private ManagerSaveException asyncError;
+    private long committedBatches;
+    private long maxLagNanos;
+    private Thread committer;
+    private boolean closed;
 
     public FileBackedTaskManager(File taskFile) {
+        this(taskFile, new PersistenceSettings());
+    }
+
+    public FileBackedTaskManager(File taskFile, SaveMode saveMode) {
+        this(taskFile, settingsOf(saveMode));
+    }
+
+    public FileBackedTaskManager(File taskFile, PersistenceSettings settings) {
         this.taskFile = taskFile;
+        this.journalFile = new File(taskFile.getPath() + ".journal");
+        this.compactingFile = new File(journalFile.getPath() + ".compacting");
+        this.saveMode = settings.getSaveMode();
+        this.snapshotFormat = settings.getSnapshotFormat();
+        this.loadParallelism = settings.getLoadParallelism();
+        this.durability = settings.getDurability();
+        this.compactionThreshold = settings.getCompactionThreshold();
+        this.asyncWrites = settings.isAsyncWrites();
+        this.groupCommit = settings.isGroupCommit() && !asyncWrites;
+        this.commitWindowNanos = asyncWrites ? settings.getMaxLag().toNanos() : settings.getCommitWindow().toNanos();
+        this.maxBatchSize = settings.getMaxBatchSize();
+        this.maxPendingOperations = settings.getMaxPendingOperations();
+        this.rows = saveMode == SaveMode.SNAPSHOT && snapshotFormat == SnapshotFormat.CSV ? new HashMap<>() : null;
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        FileBackedTaskManager taskManager;
-        try (BufferedReader fileReader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            taskManager = new FileBackedTaskManager(file);
-            fileReader.readLine(); //скипаем строку с наименованием полей
-            while (fileReader.ready()) {
-                String[] taskInfo = fileReader.readLine().split(",");
-                UUID id = UUID.fromString(taskInfo[0]);
-                TaskTypes taskTypes = TaskTypes.valueOf(taskInfo[1]);
-                String name = taskInfo[2];
-                Statuses status = Statuses.valueOf(taskInfo[3]);
-                String description = taskInfo[4];
-                LocalDateTime startTime = LocalDateTime.parse(taskInfo[5]);
-                Long durationInMinutes = Long.parseLong(taskInfo[6]);
-                LocalDateTime endTime = LocalDateTime.parse(taskInfo[7]);
-                UUID epicId = taskInfo.length == 9 ? UUID.fromString(taskInfo[8]) : null;
-                switch (taskTypes) {
-                    case EPIC:
-                        taskManager.epicTasks.put(id, new Epic(name, description, id, status, startTime, durationInMinutes, endTime));
+        return loadFromFile(file, new PersistenceSettings());
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, SaveMode saveMode) {
+        return loadFromFile(file, settingsOf(saveMode));
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings) {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, settings);
+        taskManager.recoverCompaction();
+        boolean binarySnapshot = BinarySnapshot.isBinary(file);
+        if (binarySnapshot) {
+            taskManager.readBinarySnapshot();
+        } else if (file.exists() || !taskManager.journalFile.exists()) {
+            taskManager.readSnapshot();
+        }
+        int replayedRecords = taskManager.replayJournal();
+        // Эпики бинарного снимка сохранены уже согласованными, пересчет нужен только после журнала
+        taskManager.restoreDerivedState(!binarySnapshot || replayedRecords > 0);
+        if (replayedRecords > 0) {
+            taskManager.compact();
+        }
+        return taskManager;
+    }
+
+    private static PersistenceSettings settingsOf(SaveMode saveMode) {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(saveMode);
+        return settings;
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    public synchronized void compact() {
+        if (groupCommit || asyncWrites) {
+            currentBatch.compaction = true;
+            currentBatch.urgent = true;
+            awaitCommit(currentBatch);
+            return;
+        }
+        replaceJournal(snapshotChunks(), false);
+        journalRecords = 0;
+    }
+
+    // Дожидается записи всех изменений, сделанных до вызова; в синхронных режимах они уже на диске
+    public synchronized void flush() {
+        CommitBatch batch = currentBatch.operations > 0 ? currentBatch : writingBatch;
+        if (batch != null) {
+            batch.urgent = true;
+            notifyAll();
+            waitCommitted(batch);
+        }
+        throwAsyncError();
+    }
+
+    public synchronized PersistenceMetrics getPersistenceMetrics() {
+        long now = System.nanoTime();
+        CommitBatch oldest = writingBatch != null ? writingBatch : currentBatch;
+        long lagNanos = oldest.operations > 0 ? now - oldest.firstOperationNanos : 0L;
+        int pending = currentBatch.operations + (writingBatch != null ? writingBatch.operations : 0);
+        return new PersistenceMetrics(pending, Duration.ofNanos(lagNanos), Duration.ofNanos(maxLagNanos),
+                committedBatches);
+    }
+
+    // CSV остается форматом импорта и экспорта: loadFromFile читает оба формата, определяя их по заголовку
+    public synchronized void exportCsv(File file) {
+        try {
+            writeFile(file.toPath(), csvChunks(), false);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка при сохранении задач в файл " + file.getName());
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            thread = committer;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            throwAsyncError();
+        }
+    }
+
+    private void readSnapshot() {
+        loadItems(CsvSnapshotReader.read(taskFile, loadParallelism));
+    }
+
+    private void readBinarySnapshot() {
+        loadItems(BinarySnapshot.read(taskFile));
+    }
+
+    // Фаза слияния: подзадачи связываются с эпиками после того, как загружены все эпики
+    private void loadItems(List<Task> items) {
+        List<Subtask> loadedSubtasks = new ArrayList<>();
+        for (Task item : items) {
+            if (item instanceof Epic epic) {
+                epicTasks.put(epic.getId(), epic);
+            } else if (item instanceof Subtask subtask) {
+                loadedSubtasks.add(subtask);
+            } else {
+                tasks.put(item.getId(), item);
+            }
+        }
+        for (Subtask subtask : loadedSubtasks) {
+            Epic epic = epicTasks.get(subtask.getEpicId());
+            if (epic == null) {
+                throw new ManagerUploadException("Для подзадачи " + subtask.getId() + " не найден эпик "
+                        + subtask.getEpicId());
+            }
+            subtasks.put(subtask.getId(), subtask);
+            epic.addSubtask(subtask.getId());
+        }
+    }
+
+    private int replayJournal() {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+        int records = 0;
+        try (BufferedReader fileReader = new BufferedReader(new FileReader(journalFile, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = fileReader.readLine()) != null) {
+                String[] record = line.split(",");
+                switch (JournalOperation.valueOf(record[0])) {
+                    case PUT:
+                        applyRow(Arrays.copyOfRange(record, 1, record.length));
                         break;
-                    case TASK:
-                        Task task = new Task(name, description, id, status, startTime, durationInMinutes);
-                        taskManager.tasks.put(id, task);
-                        taskManager.sortedTasks.add(task);
+                    case DELETE:
+                        applyDelete(TaskTypes.valueOf(record[1]), UUID.fromString(record[2]));
                         break;
-                    case SUBTASK:
-                        Subtask subtask = new Subtask(name, description, id, status, startTime, durationInMinutes, epicId);
-                        taskManager.subtasks.put(id, subtask);
-                        taskManager.epicTasks.get(epicId).addSubtask(id);
-                        taskManager.sortedTasks.add(subtask);
+                    case CLEAR:
+                        applyClear(TaskTypes.valueOf(record[1]));
                         break;
                 }
+                records++;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ManagerUploadException("Произошла ошибка при восстановении задач из журнала "
+                    + journalFile.getName());
+        }
+        return records;
+    }
+
+    private void applyRow(String[] taskInfo) {
+        Task item = CsvSnapshotReader.parseRow(taskInfo);
+        UUID id = item.getId();
+        switch (TaskTypes.valueOf(taskInfo[1])) {
+            case EPIC:
+                Epic epic = epicTasks.get(id);
+                if (epic == null) {
+                    epicTasks.put(id, (Epic) item);
+                } else {
+                    epic.setName(item.getName());
+                    epic.setDescription(item.getDescription());
+                }
+                break;
+            case TASK:
+                tasks.put(id, item);
+                break;
+            case SUBTASK:
+                Subtask subtask = (Subtask) item;
+                if (subtasks.put(id, subtask) == null) {
+                    linkedEpic(subtask).addSubtask(id);
+                }
+                break;
+        }
+    }
+
+    private void applyDelete(TaskTypes taskType, UUID id) {
+        switch (taskType) {
+            case EPIC:
+                Epic epic = epicTasks.remove(id);
+                if (epic != null) {
+                    epic.getIdSubtasks().forEach(subtasks::remove);
+                }
+                break;
+            case TASK:
+                tasks.remove(id);
+                break;
+            case SUBTASK:
+                Subtask subtask = subtasks.remove(id);
+                if (subtask != null) {
+                    linkedEpic(subtask).getIdSubtasks().remove(id);
+                }
+                break;
+        }
+    }
+
+    private Epic linkedEpic(Subtask subtask) {
+        Epic epic = epicTasks.get(subtask.getEpicId());
+        if (epic == null) {
+            throw new ManagerUploadException("Для подзадачи " + subtask.getId() + " из журнала не найден эпик "
+                    + subtask.getEpicId());
+        }
+        return epic;
+    }
+
+    private void applyClear(TaskTypes taskType) {
+        switch (taskType) {
+            case EPIC:
+                epicTasks.clear();
+                subtasks.clear();
+                break;
+            case TASK:
+                tasks.clear();
+                break;
+            case SUBTASK:
+                subtasks.clear();
+                epicTasks.values().forEach(epic -> epic.getIdSubtasks().clear());
+                break;
+        }
+    }
+
+    private void restoreDerivedState(boolean recomputeEpics) {
+        sortedTasks.clear();
+        Task[] scheduled = Stream.concat(tasks.values().stream(), subtasks.values().stream())
+                .filter(task -> task.getStartTime() != null && !task.getDuration().isZero())
+                .toArray(Task[]::new);
+        Arrays.parallelSort(scheduled, sortedTasks.comparator());
+        sortedTasks.addAll(Arrays.asList(scheduled));
+        if (recomputeEpics) {
+            epicTasks.values().forEach(epic -> {
+                changerEpicStatus(epic);
+                changerEpicDuration(epic);
+            });
+        }
+    }
+
+    // Снимок - список готовых кусков файла: строки из кэша пишутся как есть, без сборки всего файла в памяти
+    private List<byte[]> snapshotChunks() {
+        if (snapshotFormat == SnapshotFormat.BINARY) {
+            return List.of(BinarySnapshot.write(epicTasks.values(), tasks.values(), subtasks.values()));
+        }
+        return csvChunks();
+    }
+
+    private List<byte[]> csvChunks() {
+        int count = epicTasks.size() + tasks.size() + subtasks.size();
+        // Строки задач, удаленных в обход сброса кэша, не должны копиться
+        if (rows != null && rows.size() > count) {
+            rows.keySet().removeIf(id -> !epicTasks.containsKey(id) && !tasks.containsKey(id)
+                    && !subtasks.containsKey(id));
+        }
+        List<byte[]> chunks = new ArrayList<>(1 + count);
+        chunks.add((HEADER + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        for (Map<UUID, ? extends Task> items : List.of(epicTasks, tasks, subtasks)) {
+            for (Task item : items.values()) {
+                chunks.add(rowOf(item));
+            }
+        }
+        return chunks;
+    }
+
+    private byte[] rowOf(Task item) {
+        byte[] row = rows != null ? rows.get(item.getId()) : null;
+        if (row == null) {
+            row = (item.toStringFile() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            if (rows != null) {
+                rows.put(item.getId(), row);
+            }
+        }
+        return row;
+    }
+
+    private void invalidateRow(UUID id) {
+        if (rows != null && id != null) {
+            rows.remove(id);
+        }
+    }
+
+    private void invalidateEpicOf(UUID subtaskId) {
+        Subtask subtask = subtaskId != null ? subtasks.get(subtaskId) : null;
+        if (subtask != null) {
+            invalidateRow(subtask.getEpicId());
+        }
+    }
+
+    private void retainRows(Map<UUID, ? extends Task> items) {
+        if (rows != null) {
+            rows.keySet().retainAll(items.keySet());
+        }
+    }
+
+    private void writeSnapshot(List<byte[]> snapshot, boolean force) {
+        boolean sync = force || durability == Durability.FSYNC;
+        try {
+            Path target = taskFile.toPath().toAbsolutePath();
+            if (durability == Durability.NONE) {
+                writeFile(target, snapshot, sync);
+                return;
+            }
+            Path temp = tempSnapshot();
+            writeFile(temp, snapshot, sync);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (sync) {
+                syncDirectory(target.getParent());
             }
         } catch (IOException e) {
-            throw new ManagerUploadException("Произошла ошибка при восстановении задач из файла taskFile.csv");
+            throw new ManagerSaveException("Произошла ошибка при сохранении задач в файл " + taskFile.getName());
         }
-        taskManager.epicTasks.values().forEach(taskManager::changerEpicDuration);
-        return taskManager;
     }
 
-    private void save() {
-        List<Epic> epics = getEpicTasks();
-        List<Task> tasks = getTasks();
-        List<Subtask> subtasks = getSubtasks();
+    /*
+     * Снимок и журнал меняются в таком порядке, чтобы после сбоя было видно, учтен ли журнал в снимке: снимок
+     * пишется во временный файл, журнал переименовывается в .compacting, временный файл - в снимок, и только
+     * потом .compacting удаляется. Пока временный файл на месте, .compacting относится к старому снимку,
+     * без него - уже учтен в новом.
+     */
+    private void replaceJournal(List<byte[]> snapshot, boolean force) {
+        if (!journalFile.exists()) {
+            writeSnapshot(snapshot, force);
+            return;
+        }
+        boolean sync = force || durability == Durability.FSYNC;
+        try {
+            Path target = taskFile.toPath().toAbsolutePath();
+            Path temp = tempSnapshot();
+            writeFile(temp, snapshot, sync);
+            Files.move(journalFile.toPath(), compactingFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            if (sync) {
+                syncDirectory(target.getParent());
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (sync) {
+                syncDirectory(target.getParent());
+            }
+            Files.delete(compactingFile.toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка при сжатии журнала " + journalFile.getName());
+        }
+    }
+
+    // Прерванное сжатие: до замены снимка журнал возвращается на место, после - уже учтенный журнал удаляется
+    private void recoverCompaction() {
+        if (!compactingFile.exists()) {
+            return;
+        }
+        try {
+            Path temp = tempSnapshot();
+            if (Files.exists(temp)) {
+                Files.move(compactingFile.toPath(), journalFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(temp);
+            } else {
+                Files.delete(compactingFile.toPath());
+            }
+        } catch (IOException e) {
+            throw new ManagerUploadException("Произошла ошибка при восстановлении прерванного сжатия журнала "
+                    + journalFile.getName());
+        }
+    }
+
+    private Path tempSnapshot() {
+        Path target = taskFile.toPath().toAbsolutePath();
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+
+    private static void writeFile(Path path, List<byte[]> chunks, boolean sync) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            for (byte[] chunk : chunks) {
+                outputStream.write(chunk);
+            }
+            outputStream.flush();
+            if (sync) {
+                channel.force(true);
+            }
+        }
+    }
+
+    // Переименование становится надежным только после синхронизации каталога
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Не все системы позволяют открыть каталог как файл, тогда остается только fsync самого файла
+        }
+    }
+
+    private void appendJournal(List<String> records, boolean force) {
+        writeLines(journalFile, records, true, force || durability == Durability.FSYNC);
+    }
+
+    private void writeLines(File file, List<String> lines, boolean append, boolean force) {
+        try (FileOutputStream fileStream = new FileOutputStream(file, append);
+             OutputStream outputStream = new BufferedOutputStream(fileStream)) {
+            for (String line : lines) {
+                outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+                outputStream.write(LINE_SEPARATOR);
+            }
+            outputStream.flush();
+            if (force) {
+                fileStream.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Произошла ошибка при сохранении задач в файл " + file.getName());
+        }
+    }
+
+    private void savePut(Task item) {
+        save(List.of(putEntry(item)));
+    }
+
+    private void saveDelete(TaskTypes taskType, UUID id) {
+        save(List.of(deleteEntry(taskType, id)));
+    }
+
+    private void saveClear(TaskTypes taskType) {
+        save(List.of(new JournalEntry(JournalOperation.CLEAR, null, taskType.name(), null)));
+    }
 
-        List<String> tasksForFile = new ArrayList<>();
-        tasksForFile.add("id,type,name,status,description,startTime,durationInMinutes,endTime,epic");
+    private JournalEntry putEntry(Task item) {
+        invalidateRow(item.getId());
+        if (item instanceof Subtask subtask) {
+            invalidateRow(subtask.getEpicId());
+        }
+        return new JournalEntry(JournalOperation.PUT, item.getId(), null, item);
+    }
+
+    private JournalEntry deleteEntry(TaskTypes taskType, UUID id) {
+        invalidateRow(id);
+        return new JournalEntry(JournalOperation.DELETE, id, taskType + "," + id, null);
+    }
+
+    // Все записи одного вызова сохраняются одной операцией: одним снимком, одной дозаписью журнала или в одном батче
+    private void save(List<JournalEntry> entries) {
+        if (groupCommit) {
+            CommitBatch batch = currentBatch;
+            if (saveMode == SaveMode.JOURNAL) {
+                entries.forEach(batch::add);
+            }
+            awaitCommit(batch);
+            return;
+        }
+        if (asyncWrites) {
+            saveAsync(entries);
+            return;
+        }
+        if (saveMode == SaveMode.SNAPSHOT) {
+            writeSnapshot(snapshotChunks(), false);
+            return;
+        }
+        appendJournal(entries.stream().map(JournalEntry::toRecord).toList(), false);
+        journalRecords += entries.size();
+        if (journalRecords >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    // Ошибка прошлой фоновой записи отдается следующему вызову, чтобы она не потерялась молча
+    private void saveAsync(List<JournalEntry> entries) {
+        CommitBatch batch = currentBatch;
+        if (saveMode == SaveMode.JOURNAL) {
+            entries.forEach(batch::add);
+        }
+        enqueue(batch);
+        if (batch.operations >= maxPendingOperations) {
+            batch.urgent = true;
+            waitCommitted(batch);
+        }
+        throwAsyncError();
+    }
+
+    private void throwAsyncError() {
+        ManagerSaveException error = asyncError;
+        asyncError = null;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /*
+     * Вызывается под монитором менеджера. wait() отпускает монитор, поэтому пока батч пишется на диск,
+     * другие потоки успевают применить свои изменения и попасть в следующий батч.
+     */
+    private void awaitCommit(CommitBatch batch) {
+        enqueue(batch);
+        waitCommitted(batch);
+        if (batch.error != null) {
+            throw batch.error;
+        }
+    }
+
+    private void enqueue(CommitBatch batch) {
+        if (closed) {
+            throw new ManagerSaveException("Менеджер задач закрыт, изменения не могут быть сохранены");
+        }
+        if (committer == null) {
+            committer = new Thread(this::commitBatches,
+                    (asyncWrites ? "async-writer-" : "group-commit-") + taskFile.getName());
+            committer.setDaemon(true);
+            committer.start();
+        }
+        if (batch.operations++ == 0) {
+            batch.firstOperationNanos = System.nanoTime();
+        }
+        notifyAll();
+    }
+
+    private void waitCommitted(CommitBatch batch) {
+        try {
+            while (!batch.committed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание сохранения задач в файл было прервано");
+        }
+    }
 
-        tasksForFile.addAll(epics.stream().map(Epic::toStringFile).toList());
-        tasksForFile.addAll(tasks.stream().map(Task::toStringFile).toList());
-        tasksForFile.addAll(subtasks.stream().map(Subtask::toStringFile).toList());
-        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(taskFile))) {
-            tasksForFile.forEach(task -> {
+    private void commitBatches() {
+        while (true) {
+            CommitBatch batch;
+            List<byte[]> snapshot = null;
+            synchronized (this) {
                 try {
-                    outputStream.write(task.getBytes(StandardCharsets.UTF_8));
-                    outputStream.write(System.lineSeparator().getBytes(StandardCharsets.UTF_8));
-                } catch (IOException e) {
-                    throw new ManagerSaveException("Произошла ошибка при сохранении задач в файл taskFile.csv");
+                    while (currentBatch.operations == 0 && !closed) {
+                        wait();
+                    }
+                    if (currentBatch.operations == 0) {
+                        return;
+                    }
+                    long deadline = currentBatch.firstOperationNanos + commitWindowNanos;
+                    long remaining = deadline - System.nanoTime();
+                    while (!closed && !currentBatch.urgent && currentBatch.operations < maxBatchSize
+                            && remaining > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        remaining = deadline - System.nanoTime();
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
                 }
-            });
-        } catch (IOException e) {
-            throw new ManagerSaveException("Произошла ошибка при сохранении задач в файл taskFile.csv");
+                batch = currentBatch;
+                currentBatch = new CommitBatch();
+                writingBatch = batch;
+                if (saveMode == SaveMode.SNAPSHOT || batch.compaction
+                        || journalRecords + batch.records.size() >= compactionThreshold) {
+                    snapshot = snapshotChunks();
+                }
+            }
+            ManagerSaveException error = null;
+            try {
+                if (snapshot != null) {
+                    replaceJournal(snapshot, true);
+                } else {
+                    appendJournal(batch.records, true);
+                }
+            } catch (ManagerSaveException e) {
+                error = e;
+            }
+            synchronized (this) {
+                if (error == null) {
+                    journalRecords = snapshot != null ? 0 : journalRecords + batch.records.size();
+                } else {
+                    // Записи журнала из неудачного батча потеряны, следующий батч перепишет снимок целиком
+                    currentBatch.compaction = true;
+                    if (asyncWrites) {
+                        asyncError = error;
+                    }
+                }
+                committedBatches++;
+                maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - batch.firstOperationNanos);
+                writingBatch = null;
+                batch.error = error;
+                batch.committed = true;
+                notifyAll();
+            }
         }
     }
 
     @Override
-    public void clearEpicTasks() {
+    public synchronized void clearEpicTasks() {
         super.clearEpicTasks();
-        save();
+        retainRows(tasks);
+        saveClear(TaskTypes.EPIC);
     }
 
     @Override
-    public void clearTasks() {
+    public synchronized void clearTasks() {
         super.clearTasks();
-        save();
+        saveClear(TaskTypes.TASK);
     }
 
     @Override
-    public void clearSubtasks() {
+    public synchronized void clearSubtasks() {
         super.clearSubtasks();
-        save();
+        // Вместе с подзадачами меняются статус и время всех эпиков
+        retainRows(tasks);
+        saveClear(TaskTypes.SUBTASK);
     }
 
     @Override
-    public UUID createEpic(Epic epic) {
+    public synchronized UUID createEpic(Epic epic) {
+        boolean repeated = isStored(TaskTypes.EPIC, epic.getId());
         UUID epicId = super.createEpic(epic);
-        save();
+        if (!repeated) {
+            savePut(epicTasks.get(epicId));
+        }
         return epicId;
     }
 
     @Override
-    public UUID createTask(Task task) {
+    public synchronized UUID createTask(Task task) {
+        boolean repeated = isStored(TaskTypes.TASK, task.getId());
         UUID taskId = super.createTask(task);
-        save();
+        if (!repeated) {
+            savePut(tasks.get(taskId));
+        }
         return taskId;
     }
 
     @Override
-    public UUID createSubtask(Subtask subtask) {
+    public synchronized UUID createSubtask(Subtask subtask) {
+        boolean repeated = isStored(TaskTypes.SUBTASK, subtask.getId());
         UUID subtaskId = super.createSubtask(subtask);
-        save();
+        if (!repeated) {
+            savePut(subtasks.get(subtaskId));
+        }
         return subtaskId;
     }
 
     @Override
-    public void updateEpic(Epic epic) {
+    public synchronized void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        savePut(epicTasks.get(epic.getId()));
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        savePut(task);
     }
 
     @Override
-    public void updateSubtask(Subtask subtask) {
+    public synchronized void updateSubtask(Subtask subtask) {
+        invalidateEpicOf(subtask.getId());
         super.updateSubtask(subtask);
-        save();
+        savePut(subtask);
     }
 
     @Override
-    public boolean removeEpic(UUID id) {
+    public synchronized boolean removeEpic(UUID id) {
         boolean result = super.removeEpic(id);
-        save();
+        saveDelete(TaskTypes.EPIC, id);
         return result;
     }
 
     @Override
-    public boolean removeTask(UUID id) {
+    public synchronized boolean removeTask(UUID id) {
         boolean result = super.removeTask(id);
-        save();
+        saveDelete(TaskTypes.TASK, id);
         return result;
     }
 
     @Override
-    public boolean removeSubtask(UUID id) {
+    public synchronized boolean removeSubtask(UUID id) {
+        invalidateEpicOf(id);
         boolean result = super.removeSubtask(id);
-        save();
+        saveDelete(TaskTypes.SUBTASK, id);
         return result;
     }
+
+    @Override
+    public synchronized void changerEpicStatus(Epic epic) {
+        super.changerEpicStatus(epic);
+        invalidateRow(epic.getId());
+    }
+
+    @Override
+    public synchronized void changerEpicDuration(Epic epic) {
+        super.changerEpicDuration(epic);
+        invalidateRow(epic.getId());
+    }
+
+    // Пакет применяется в памяти целиком и сохраняется одной записью, удаления идут первыми, как и при применении
+    @Override
+    public synchronized List<UUID> applyBatch(List<BatchCommand> commands) {
+        Set<BatchCommand> repeatedCreates = new HashSet<>();
+        for (BatchCommand command : commands) {
+            if (command.getOperation() == BatchOperation.CREATE
+                    && isStored(command.getType(), command.getItem().getId())) {
+                repeatedCreates.add(command);
+            }
+            if (command.getType() == TaskTypes.SUBTASK) {
+                invalidateEpicOf(command.getId());
+            }
+        }
+        List<UUID> ids = super.applyBatch(commands);
+        List<JournalEntry> entries = new ArrayList<>(commands.size());
+        for (BatchCommand command : commands) {
+            if (command.getOperation() == BatchOperation.DELETE) {
+                entries.add(deleteEntry(command.getType(), command.getId()));
+            }
+        }
+        for (BatchCommand command : commands) {
+            if (command.getOperation() == BatchOperation.DELETE || repeatedCreates.contains(command)) {
+                continue;
+            }
+            entries.add(putEntry(findStored(command.getType(), command.getItem().getId())));
+        }
+        if (!entries.isEmpty()) {
+            save(entries);
+        }
+        return ids;
+    }
+
+    /*
+     * Чтения идут под тем же монитором, что и изменения: хранилище базового менеджера - обычные HashMap, TreeSet
+     * и история без своей синхронизации, а HTTP-сервер обращается к менеджеру из многих потоков.
+     * Ожидание записи батча отпускает монитор, поэтому чтения не ждут диска.
+     */
+    @Override
+    public synchronized List<Epic> getEpicTasks() {
+        return super.getEpicTasks();
+    }
+
+    @Override
+    public synchronized List<Task> getTasks() {
+        return super.getTasks();
+    }
+
+    @Override
+    public synchronized List<Subtask> getSubtasks() {
+        return super.getSubtasks();
+    }
+
+    @Override
+    public synchronized Epic getEpic(UUID id) {
+        return super.getEpic(id);
+    }
+
+    @Override
+    public synchronized Task getTask(UUID id) {
+        return super.getTask(id);
+    }
+
+    @Override
+    public synchronized Subtask getSubtask(UUID id) {
+        return super.getSubtask(id);
+    }
+
+    @Override
+    public synchronized Epic peekEpic(UUID id) {
+        return super.peekEpic(id);
+    }
+
+    @Override
+    public synchronized Task peekTask(UUID id) {
+        return super.peekTask(id);
+    }
+
+    @Override
+    public synchronized Subtask peekSubtask(UUID id) {
+        return super.peekSubtask(id);
+    }
+
+    @Override
+    public synchronized List<Subtask> getEpicSubtask(UUID id) {
+        return super.getEpicSubtask(id);
+    }
+
+    @Override
+    public synchronized List<Task> getTaskHistory() {
+        return super.getTaskHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getTaskHistory(UUID after, int limit, boolean newestFirst) {
+        return super.getTaskHistory(after, limit, newestFirst);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks() {
+        return super.getPrioritizedTasks();
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return super.getPrioritizedTasks(from, to);
+    }
+
+    @Override
+    public synchronized List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        return super.getPrioritizedTasks(from, to, limit);
+    }
+
+    @Override
+    public synchronized List<Task> getUpcoming(LocalDateTime from, int limit) {
+        return super.getUpcoming(from, limit);
+    }
+
+    @Override
+    public synchronized LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        return super.findFreeSlot(duration, notBefore, notAfter);
+    }
+
+    // Повторное создание с уже сохраненным id в памяти ничего не меняет, поэтому и в файл ничего не пишется
+    private boolean isStored(TaskTypes type, UUID id) {
+        return id != null && findStored(type, id) != null;
+    }
+
+    private Task findStored(TaskTypes type, UUID id) {
+        return switch (type) {
+            case EPIC -> epicTasks.get(id);
+            case TASK -> tasks.get(id);
+            case SUBTASK -> subtasks.get(id);
+        };
+    }
+
+    private enum JournalOperation {
+        PUT,
+        DELETE,
+        CLEAR
+    }
+
+    private static class JournalEntry {
+        private final JournalOperation operation;
+        private final UUID id;
+        private final String record;
+        // Строка PUT форматируется только при записи в журнал: в режиме SNAPSHOT она не нужна
+        private final Task item;
+
+        private JournalEntry(JournalOperation operation, UUID id, String record, Task item) {
+            this.operation = operation;
+            this.id = id;
+            this.record = record;
+            this.item = item;
+        }
+
+        private String toRecord() {
+            return operation + "," + (item != null ? item.toStringFile() : record);
+        }
+    }
+
+    private static class CommitBatch {
+        private final List<String> records = new ArrayList<>();
+        // Позиция последней записи PUT по id: повторное изменение в том же батче заменяет ее, а не дописывает новую
+        private final Map<UUID, Integer> putPositions = new HashMap<>();
+        private int operations;
+        private long firstOperationNanos;
+        private boolean urgent;
+        private boolean compaction;
+        private boolean committed;
+        private ManagerSaveException error;
+
+        private void add(JournalEntry entry) {
+            String journalRecord = entry.toRecord();
+            switch (entry.operation) {
+                case PUT:
+                    Integer position = putPositions.get(entry.id);
+                    if (position != null) {
+                        records.set(position, journalRecord);
+                        return;
+                    }
+                    putPositions.put(entry.id, records.size());
+                    break;
+                case DELETE:
+                    putPositions.remove(entry.id);
+                    break;
+                case CLEAR:
+                    putPositions.clear();
+                    break;
+            }
+            records.add(journalRecord);
+        }
+    }
 }
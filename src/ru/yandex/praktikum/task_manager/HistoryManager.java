@@ -10,5 +10,7 @@ public interface HistoryManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(UUID after, int limit, boolean newestFirst);
+
     void remove(UUID id);
 }
@@ -0,0 +1,63 @@
+package ru.yandex.praktikum.task_manager;
+
+import java.time.Clock;
+import java.time.Duration;
+
+public class HistorySettings {
+    private int maxEntries = 0;
+    private Duration maxAge = Duration.ZERO;
+    private boolean perClient = false;
+    private int maxClients = 1024;
+    private Clock clock = Clock.systemUTC();
+    private HistoryStorage storage = HistoryStorage.LINKED;
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    // 0 - без ограничения, при превышении вытесняется задача, которую дольше всех не просматривали
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    // Нулевой возраст - без ограничения
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public boolean isPerClient() {
+        return perClient;
+    }
+
+    public void setPerClient(boolean perClient) {
+        this.perClient = perClient;
+    }
+
+    public int getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(int maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public HistoryStorage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(HistoryStorage storage) {
+        this.storage = storage;
+    }
+}
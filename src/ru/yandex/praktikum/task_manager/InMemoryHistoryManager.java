@@ -1,17 +1,39 @@
 package ru.yandex.praktikum.task_manager;
 
+import ru.yandex.praktikum.exceptions.NotFoundException;
 import ru.yandex.praktikum.task_collections.LinkedTaskList;
 import ru.yandex.praktikum.task_collections.Node;
 import ru.yandex.praktikum.task_tracker.Task;
 
+import java.time.Clock;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static ru.yandex.praktikum.Constants.NOT_FOUND;
+
+/*
+ * Список упорядочен по времени последнего просмотра, поэтому при ограничениях по количеству и возрасту
+ * вытеснять всегда нужно с головы списка.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
     private final LinkedTaskList<Task> history = new LinkedTaskList<>();
     private final Map<UUID, Node<Task>> taskMap = new HashMap<>();
+    private final Map<UUID, Long> viewTimes = new HashMap<>();
+    private final int maxEntries;
+    private final long maxAgeMillis;
+    private final Clock clock;
+
+    public InMemoryHistoryManager() {
+        this(new HistorySettings());
+    }
+
+    public InMemoryHistoryManager(HistorySettings settings) {
+        maxEntries = settings.getMaxEntries();
+        maxAgeMillis = settings.getMaxAge().toMillis();
+        clock = settings.getClock();
+    }
 
     @Override
     public void add(Task task) {
@@ -22,19 +44,54 @@ public class InMemoryHistoryManager implements HistoryManager {
             }
             history.linkLast(task);
             taskMap.put(task.getId(), history.getLastTask());
+            if (maxAgeMillis > 0) {
+                viewTimes.put(task.getId(), clock.millis());
+                evictExpired();
+            }
+            while (maxEntries > 0 && taskMap.size() > maxEntries) {
+                remove(history.getFirstTask().data.getId());
+            }
         }
     }
 
     @Override
     public List<Task> getHistory() {
+        if (maxAgeMillis > 0) {
+            evictExpired();
+        }
         return history.getTasks();
     }
 
+    @Override
+    public List<Task> getHistory(UUID after, int limit, boolean newestFirst) {
+        if (maxAgeMillis > 0) {
+            evictExpired();
+        }
+        Node<Task> afterNode = null;
+        if (after != null) {
+            afterNode = taskMap.get(after);
+            if (afterNode == null) {
+                throw new NotFoundException("Задачи нет в истории просмотров", NOT_FOUND);
+            }
+        }
+        return history.getTasks(afterNode, limit, newestFirst);
+    }
+
     @Override
     public void remove(UUID id) {
         if (taskMap.containsKey(id)) {
             history.removeNode(taskMap.get(id));
             taskMap.remove(id);
+            viewTimes.remove(id);
+        }
+    }
+
+    private void evictExpired() {
+        long oldestAllowed = clock.millis() - maxAgeMillis;
+        Node<Task> first = history.getFirstTask();
+        while (first != null && viewTimes.get(first.data.getId()) < oldestAllowed) {
+            remove(first.data.getId());
+            first = history.getFirstTask();
         }
     }
 }
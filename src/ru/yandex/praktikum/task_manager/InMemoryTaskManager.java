@@ -5,13 +5,18 @@ import ru.yandex.praktikum.task_tracker.Epic;
 import ru.yandex.praktikum.task_tracker.Statuses;
 import ru.yandex.praktikum.task_tracker.Subtask;
 import ru.yandex.praktikum.task_tracker.Task;
+import ru.yandex.praktikum.task_tracker.TaskTypes;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -21,17 +26,31 @@ import static ru.yandex.praktikum.Constants.NOT_ACCEPTABLE;
 import static ru.yandex.praktikum.Constants.NOT_FOUND;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected final HistoryManager manager = Managers.getDefaultHistory();
+    protected final HistoryManager manager;
     protected final Map<UUID, Epic> epicTasks;
     protected final Map<UUID, Task> tasks;
     protected final Map<UUID, Subtask> subtasks;
-    protected final Set<Task> sortedTasks;
+    protected final NavigableSet<Task> sortedTasks;
+    final Map<UUID, EpicAggregate> epicAggregates;
 
     public InMemoryTaskManager() {
-        epicTasks = new HashMap<>();
-        tasks = new HashMap<>();
-        subtasks = new HashMap<>();
-        sortedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager manager) {
+        this(new HashMap<>(), new HashMap<>(), new HashMap<>(), new TreeSet<>(Task::compareStartTime),
+                manager, new HashMap<>());
+    }
+
+    InMemoryTaskManager(Map<UUID, Epic> epicTasks, Map<UUID, Task> tasks, Map<UUID, Subtask> subtasks,
+                        NavigableSet<Task> sortedTasks, HistoryManager manager,
+                        Map<UUID, EpicAggregate> epicAggregates) {
+        this.epicTasks = epicTasks;
+        this.tasks = tasks;
+        this.subtasks = subtasks;
+        this.sortedTasks = sortedTasks;
+        this.manager = manager;
+        this.epicAggregates = epicAggregates;
     }
 
     @Override
@@ -58,6 +77,7 @@ public class InMemoryTaskManager implements TaskManager {
         });
         epicTasks.clear();
         subtasks.clear();
+        epicAggregates.clear();
     }
 
     @Override
@@ -76,16 +96,38 @@ public class InMemoryTaskManager implements TaskManager {
             sortedTasks.remove(subtask);
         });
         subtasks.clear();
+        epicAggregates.clear();
         epicTasks.values().forEach(epic -> {
             epic.getIdSubtasks().clear();
-            changerEpicStatus(epic);
-            changerEpicDuration(epic);
+            EpicAggregate aggregate = aggregateOf(epic);
+            aggregate.applyStatus(epic);
+            aggregate.applyDuration(epic);
         });
     }
 
     @Override
     public Epic getEpic(UUID id) {
-        manager.add(epicTasks.get(id));
+        Epic epic = peekEpic(id);
+        manager.add(epic);
+        return epic;
+    }
+
+    @Override
+    public Task getTask(UUID id) {
+        Task task = peekTask(id);
+        manager.add(task);
+        return task;
+    }
+
+    @Override
+    public Subtask getSubtask(UUID id) {
+        Subtask subtask = peekSubtask(id);
+        manager.add(subtask);
+        return subtask;
+    }
+
+    @Override
+    public Epic peekEpic(UUID id) {
         Epic epic = epicTasks.get(id);
         if (epic == null) {
             throw new NotFoundException("Такого эпика нет", NOT_FOUND);
@@ -94,8 +136,7 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     @Override
-    public Task getTask(UUID id) {
-        manager.add(tasks.get(id));
+    public Task peekTask(UUID id) {
         Task task = tasks.get(id);
         if (task == null) {
             throw new NotFoundException("Такой задачи нет", NOT_FOUND);
@@ -104,8 +145,7 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     @Override
-    public Subtask getSubtask(UUID id) {
-        manager.add(subtasks.get(id));
+    public Subtask peekSubtask(UUID id) {
         Subtask subtask = subtasks.get(id);
         if (subtask == null) {
             throw new NotFoundException("Такой подзадачи нет", NOT_FOUND);
@@ -128,14 +168,9 @@ public class InMemoryTaskManager implements TaskManager {
         if (task.getId() != null && tasks.containsKey(task.getId())) {
             return task.getId();
         }
-        if (getTasks().stream().noneMatch(sortedTask -> checkTimeIntersections(task, sortedTask))
-                && getSubtasks().stream().noneMatch(sortedSubtask -> checkTimeIntersections(task, sortedSubtask))) {
+        if (!hasTimeIntersections(task)) {
             task.setId(UUID.randomUUID());
-            if (task.getStartTime() != null && !task.getDuration().isZero()) {
-                sortedTasks.add(task);
-                task.getEndTime();
-            }
-            tasks.put(task.getId(), task);
+            storeTask(task);
             return task.getId();
         }
         throw new NotFoundException("Добавляемая задача пересекается с существующими", NOT_ACCEPTABLE);
@@ -149,18 +184,10 @@ public class InMemoryTaskManager implements TaskManager {
         if (subtask.getId() != null && subtasks.containsKey(subtask.getId())) {
             return subtask.getId();
         }
-        if (getSubtasks().stream().noneMatch(sortedSubtask -> checkTimeIntersections(subtask, sortedSubtask))
-                && getTasks().stream().noneMatch(sortedTask -> checkTimeIntersections(subtask, sortedTask))) {
+        if (!hasTimeIntersections(subtask)) {
             subtask.setId(UUID.randomUUID());
-            Epic epic = epicTasks.get(subtask.getEpicId());
-            if (subtask.getStartTime() != null && !subtask.getDuration().isZero()) {
-                sortedTasks.add(subtask);
-                subtask.getEndTime();
-            }
-            epic.addSubtask(subtask.getId());
-            subtasks.put(subtask.getId(), subtask);
-            changerEpicStatus(epic);
-            changerEpicDuration(epic);
+            epicTasks.get(subtask.getEpicId()).addSubtask(subtask.getId());
+            storeSubtask(subtask);
             return subtask.getId();
         }
         throw new NotFoundException("Добавляемая подзадача пересекается с существующими", NOT_ACCEPTABLE);
@@ -180,14 +207,9 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void updateTask(Task task) {
         if (tasks.containsKey(task.getId())) {
-            if (getTasks().stream().noneMatch(sortedTask -> checkTimeIntersections(task, sortedTask))
-                    && getSubtasks().stream().noneMatch(sortedSubtask -> checkTimeIntersections(task, sortedSubtask))) {
+            if (!hasTimeIntersections(task)) {
                 sortedTasks.remove(tasks.get(task.getId()));
-                tasks.put(task.getId(), task);
-                if (task.getStartTime() != null && !task.getDuration().isZero()) {
-                    task.getEndTime();
-                    sortedTasks.add(task);
-                }
+                storeTask(task);
                 return;
             }
             throw new NotFoundException("Обновляемая задача пересекается с существующими", NOT_ACCEPTABLE);
@@ -201,17 +223,9 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("У добавляемой подзадачи отсутствует связь с эпиком", BAD_REQUEST);
         }
         if (subtasks.containsKey(subtask.getId())) {
-            if (getSubtasks().stream().noneMatch(sortedSubtask -> checkTimeIntersections(subtask, sortedSubtask))
-                    && getTasks().stream().noneMatch(sortedTask -> checkTimeIntersections(subtask, sortedTask))) {
-                Epic epic = epicTasks.get(subtask.getEpicId());
+            if (!hasTimeIntersections(subtask)) {
                 sortedTasks.remove(subtasks.get(subtask.getId()));
-                subtasks.put(subtask.getId(), subtask);
-                if (subtask.getStartTime() != null && !subtask.getDuration().isZero()) {
-                    sortedTasks.add(subtask);
-                    subtask.getEndTime();
-                }
-                changerEpicStatus(epic);
-                changerEpicDuration(epic);
+                storeSubtask(subtask);
                 return;
             }
             throw new NotFoundException("Обновляемая подзадача пересекается с существующими", NOT_ACCEPTABLE);
@@ -221,6 +235,21 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public boolean removeEpic(UUID id) {
+        return deleteEpic(id);
+    }
+
+    @Override
+    public boolean removeTask(UUID id) {
+        return deleteTask(id);
+    }
+
+    @Override
+    public boolean removeSubtask(UUID id) {
+        return deleteSubtask(id);
+    }
+
+    // Удаление без переопределяемых методов: пакет вызывает его напрямую, не сохраняя каждую команду отдельно
+    private boolean deleteEpic(UUID id) {
         Epic deleteEpic = epicTasks.remove(id);
         if (deleteEpic != null) {
             deleteEpic.getIdSubtasks().forEach(subtaskId -> {
@@ -228,14 +257,14 @@ public class InMemoryTaskManager implements TaskManager {
                 manager.remove(subtaskId);
                 sortedTasks.remove(subtask);
             });
+            epicAggregates.remove(id);
             manager.remove(id);
             return true;
         }
         throw new NotFoundException("Такого эпика нет", NOT_FOUND);
     }
 
-    @Override
-    public boolean removeTask(UUID id) {
+    private boolean deleteTask(UUID id) {
         Task task = tasks.remove(id);
         if (task != null) {
             manager.remove(id);
@@ -245,21 +274,162 @@ public class InMemoryTaskManager implements TaskManager {
         throw new NotFoundException("Такой задачи нет", NOT_FOUND);
     }
 
-    @Override
-    public boolean removeSubtask(UUID id) {
+    private boolean deleteSubtask(UUID id) {
         Subtask subtask = subtasks.remove(id);
         if (subtask != null) {
             Epic linkedEpic = epicTasks.get(subtask.getEpicId());
             linkedEpic.getIdSubtasks().remove(id);
             sortedTasks.remove(subtask);
-            changerEpicStatus(linkedEpic);
-            changerEpicDuration(linkedEpic);
+            EpicAggregate aggregate = aggregateOf(linkedEpic);
+            aggregate.remove(id);
+            aggregate.applyStatus(linkedEpic);
+            aggregate.applyDuration(linkedEpic);
             manager.remove(id);
             return true;
         }
         throw new NotFoundException("Такой подзадачи нет", NOT_FOUND);
     }
 
+    /*
+     * Сначала проверяется весь пакет по итоговому состоянию: удаленные и обновляемые задачи освобождают свои
+     * интервалы, новые интервалы сортируются и проверяются проходом по порядку начала друг с другом и по индексу
+     * с существующими. Применение после проверки не может упасть, поэтому пакет не остается примененным наполовину.
+     */
+    @Override
+    public List<UUID> applyBatch(List<BatchCommand> commands) {
+        validateBatch(commands);
+        UUID[] ids = new UUID[commands.size()];
+        for (int i = 0; i < commands.size(); i++) {
+            BatchCommand command = commands.get(i);
+            if (command.getOperation() == BatchOperation.DELETE) {
+                removeItem(command.getType(), command.getId());
+                ids[i] = command.getId();
+            } else if (command.getOperation() == BatchOperation.UPDATE && command.getType() != TaskTypes.EPIC) {
+                // Старые интервалы убираются заранее: новый интервал одной задачи может занять место другой
+                sortedTasks.remove(command.getType() == TaskTypes.TASK
+                        ? tasks.get(command.getId())
+                        : subtasks.get(command.getId()));
+            }
+        }
+        for (int i = 0; i < commands.size(); i++) {
+            BatchCommand command = commands.get(i);
+            Task item = command.getItem();
+            if (command.getOperation() == BatchOperation.CREATE) {
+                ids[i] = createItem(command.getType(), item);
+            } else if (command.getOperation() == BatchOperation.UPDATE) {
+                switch (command.getType()) {
+                    case EPIC -> {
+                        Epic epic = epicTasks.get(item.getId());
+                        epic.setName(item.getName());
+                        epic.setDescription(item.getDescription());
+                    }
+                    case TASK -> storeTask(item);
+                    case SUBTASK -> storeSubtask((Subtask) item);
+                }
+                ids[i] = item.getId();
+            }
+        }
+        return Arrays.asList(ids);
+    }
+
+    private void removeItem(TaskTypes type, UUID id) {
+        switch (type) {
+            case EPIC -> deleteEpic(id);
+            case TASK -> deleteTask(id);
+            case SUBTASK -> deleteSubtask(id);
+        }
+    }
+
+    private UUID createItem(TaskTypes type, Task item) {
+        switch (type) {
+            case EPIC:
+                if (item.getId() == null || !epicTasks.containsKey(item.getId())) {
+                    item.setId(UUID.randomUUID());
+                    epicTasks.put(item.getId(), (Epic) item);
+                }
+                return item.getId();
+            case SUBTASK:
+                Subtask subtask = (Subtask) item;
+                if (subtask.getId() == null || !subtasks.containsKey(subtask.getId())) {
+                    subtask.setId(UUID.randomUUID());
+                    epicTasks.get(subtask.getEpicId()).addSubtask(subtask.getId());
+                    storeSubtask(subtask);
+                }
+                return subtask.getId();
+            default:
+                if (item.getId() == null || !tasks.containsKey(item.getId())) {
+                    item.setId(UUID.randomUUID());
+                    storeTask(item);
+                }
+                return item.getId();
+        }
+    }
+
+    private void validateBatch(List<BatchCommand> commands) {
+        Set<UUID> deletedEpics = new HashSet<>();
+        for (BatchCommand command : commands) {
+            if (command.getOperation() == BatchOperation.DELETE && command.getType() == TaskTypes.EPIC) {
+                deletedEpics.add(command.getId());
+            }
+        }
+        Set<UUID> touchedIds = new HashSet<>();
+        Set<UUID> releasedIds = new HashSet<>();
+        List<Task> intervals = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            BatchCommand command = commands.get(i);
+            String prefix = "Команда " + (i + 1) + ": ";
+            Task item = command.getItem();
+            if (command.getOperation() != BatchOperation.CREATE) {
+                Task stored = storedItem(command.getType(), command.getId(), prefix);
+                if (!touchedIds.add(command.getId())) {
+                    throw new NotFoundException(prefix + "задача уже изменяется в этом пакете", BAD_REQUEST);
+                }
+                releasedIds.add(command.getId());
+                if (stored instanceof Epic epic && command.getOperation() == BatchOperation.DELETE) {
+                    releasedIds.addAll(epic.getIdSubtasks());
+                }
+                if (stored instanceof Subtask subtask && deletedEpics.contains(subtask.getEpicId())) {
+                    throw new NotFoundException(prefix + "эпик подзадачи удаляется в этом же пакете", BAD_REQUEST);
+                }
+            }
+            if (command.getOperation() == BatchOperation.DELETE || command.getType() == TaskTypes.EPIC) {
+                continue;
+            }
+            if (item instanceof Subtask subtask && (!epicTasks.containsKey(subtask.getEpicId())
+                    || deletedEpics.contains(subtask.getEpicId()))) {
+                throw new NotFoundException(prefix + "у подзадачи отсутствует связь с эпиком", BAD_REQUEST);
+            }
+            boolean existing = command.getOperation() == BatchOperation.CREATE && item.getId() != null
+                    && (tasks.containsKey(item.getId()) || subtasks.containsKey(item.getId()));
+            if (!existing && item.getStartTime() != null && !item.getDuration().isZero()) {
+                intervals.add(item);
+            }
+        }
+        intervals.sort(Task::compareStartTime);
+        LocalDateTime latestEnd = null;
+        for (Task interval : intervals) {
+            if (latestEnd != null && interval.getStartTime().isBefore(latestEnd)) {
+                throw new NotFoundException("Задачи пакета пересекаются между собой", NOT_ACCEPTABLE);
+            }
+            latestEnd = interval.getEndTime();
+            if (intersectsSchedule(interval, releasedIds)) {
+                throw new NotFoundException("Задача пакета пересекается с существующими", NOT_ACCEPTABLE);
+            }
+        }
+    }
+
+    private Task storedItem(TaskTypes type, UUID id, String prefix) {
+        Task stored = switch (type) {
+            case EPIC -> epicTasks.get(id);
+            case TASK -> tasks.get(id);
+            case SUBTASK -> subtasks.get(id);
+        };
+        if (id == null || stored == null) {
+            throw new NotFoundException(prefix + "такой задачи нет", NOT_FOUND);
+        }
+        return stored;
+    }
+
     @Override
     public List<Subtask> getEpicSubtask(UUID id) {
         if (!epicTasks.containsKey(id)) {
@@ -273,61 +443,185 @@ public class InMemoryTaskManager implements TaskManager {
         return manager.getHistory();
     }
 
+    @Override
+    public List<Task> getTaskHistory(UUID after, int limit, boolean newestFirst) {
+        return manager.getHistory(after, limit, newestFirst);
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
         return new ArrayList<>(sortedTasks);
     }
 
-    public void changerEpicStatus(Epic epic) {
-        List<Subtask> epicSubtask = epic.getIdSubtasks().stream().map(subtasks::get).toList();
-        if (!epicSubtask.isEmpty()) {
-            Statuses finalStatus = null;
-            for (Subtask subtask : epicSubtask) {
-                if (subtask.getStatus() == Statuses.DONE && (finalStatus == Statuses.DONE || finalStatus == null)) {
-                    finalStatus = Statuses.DONE;
-                } else if (subtask.getStatus() == Statuses.NEW && (finalStatus == Statuses.NEW || finalStatus == null)) {
-                    finalStatus = Statuses.NEW;
-                } else {
-                    finalStatus = Statuses.IN_PROGRESS;
-                    break;
-                }
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return getPrioritizedTasks(from, to, Integer.MAX_VALUE);
+    }
+
+    // Работает на представлениях индекса: обход останавливается на конце окна или на limit задачах,
+    // поэтому стоимость пропорциональна ответу, а не всему расписанию
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new NotFoundException("Начало окна должно быть не позже его конца", BAD_REQUEST);
+        }
+        List<Task> window = new ArrayList<>();
+        if (limit <= 0) {
+            return window;
+        }
+        NavigableSet<Task> view = sortedTasks;
+        if (from != null) {
+            Task running = runningAt(from);
+            if (running != null) {
+                window.add(running);
             }
-            epic.setStatus(finalStatus);
-        } else {
-            epic.setStatus(Statuses.NEW);
+            view = view.tailSet(timeProbe(from), true);
+        }
+        if (to != null) {
+            view = view.headSet(timeProbe(to), false);
+        }
+        if (limit == Integer.MAX_VALUE) {
+            window.addAll(view);
+            return window;
+        }
+        Iterator<Task> next = view.iterator();
+        while (window.size() < limit && next.hasNext()) {
+            window.add(next.next());
+        }
+        return window;
+    }
+
+    @Override
+    public List<Task> getUpcoming(LocalDateTime from, int limit) {
+        List<Task> upcoming = new ArrayList<>(Math.min(Math.max(limit, 0), 64));
+        if (limit <= 0) {
+            return upcoming;
         }
+        Task running = runningAt(from);
+        if (running != null) {
+            upcoming.add(running);
+        }
+        Iterator<Task> next = sortedTasks.tailSet(timeProbe(from), true).iterator();
+        while (upcoming.size() < limit && next.hasNext()) {
+            upcoming.add(next.next());
+        }
+        return upcoming;
+    }
+
+    /*
+     * Проход по промежуткам между задачами индекса, начиная с задачи, идущей в момент notBefore:
+     * O(log n) на поиск начала и O(k) на просмотр k задач, в промежутки между которыми новая не поместилась.
+     */
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new NotFoundException("Длительность задачи должна быть положительной", BAD_REQUEST);
+        }
+        LocalDateTime candidate = notBefore;
+        Task running = runningAt(candidate);
+        if (running != null) {
+            candidate = running.getEndTime();
+        }
+        for (Task next : sortedTasks.tailSet(timeProbe(candidate), true)) {
+            if (notAfter != null && candidate.plus(duration).isAfter(notAfter)) {
+                break;
+            }
+            if (!candidate.plus(duration).isAfter(next.getStartTime())) {
+                return candidate;
+            }
+            candidate = next.getEndTime();
+        }
+        if (notAfter != null && candidate.plus(duration).isAfter(notAfter)) {
+            throw new NotFoundException("Нет свободного времени нужной длительности", NOT_FOUND);
+        }
+        return candidate;
+    }
+
+    // Задачи в индексе не пересекаются, поэтому идти в момент time может только ближайшая начавшаяся раньше
+    private Task runningAt(LocalDateTime time) {
+        Task previous = sortedTasks.lower(timeProbe(time));
+        return previous != null && previous.getEndTime().isAfter(time) ? previous : null;
+    }
+
+    private static Task timeProbe(LocalDateTime time) {
+        return new Task(null, null, time, 0L);
+    }
+
+    // Полный пересчет по текущему состоянию подзадач, накопленные значения эпика строятся заново
+    public void changerEpicStatus(Epic epic) {
+        rebuildAggregate(epic).applyStatus(epic);
     }
 
     public void changerEpicDuration(Epic epic) {
-        List<Subtask> subtasksList = epic.getIdSubtasks().stream()
+        rebuildAggregate(epic).applyDuration(epic);
+    }
+
+    private void storeTask(Task task) {
+        if (task.getStartTime() != null && !task.getDuration().isZero()) {
+            sortedTasks.add(task);
+        }
+        tasks.put(task.getId(), task);
+    }
+
+    private void storeSubtask(Subtask subtask) {
+        boolean scheduled = subtask.getStartTime() != null && !subtask.getDuration().isZero();
+        if (scheduled) {
+            sortedTasks.add(subtask);
+        }
+        subtasks.put(subtask.getId(), subtask);
+        putContribution(epicTasks.get(subtask.getEpicId()), subtask, scheduled);
+    }
+
+    private void putContribution(Epic epic, Subtask subtask, boolean scheduled) {
+        EpicAggregate aggregate = aggregateOf(epic);
+        aggregate.put(subtask, scheduled);
+        aggregate.applyStatus(epic);
+        aggregate.applyDuration(epic);
+    }
+
+    private EpicAggregate aggregateOf(Epic epic) {
+        EpicAggregate aggregate = epicAggregates.get(epic.getId());
+        return aggregate != null ? aggregate : rebuildAggregate(epic);
+    }
+
+    private EpicAggregate rebuildAggregate(Epic epic) {
+        EpicAggregate aggregate = new EpicAggregate();
+        epic.getIdSubtasks().stream()
                 .map(subtasks::get)
-                .filter(subtask -> subtask.getStartTime() != null)
-                .filter(sortedTasks::contains)
-                .toList();
-        if (!subtasksList.isEmpty()) {
-            Optional<Subtask> startTime = subtasksList.stream().min(Comparator.comparing(Task::getStartTime));
-            startTime.ifPresent(subtask -> epic.setStartTime(subtask.getStartTime()));
-            List<Subtask> endTimes = subtasksList.stream().filter(subtask -> subtask.getEndTime() != null).toList();
-            if (!endTimes.isEmpty()) {
-                Optional<Subtask> endTime = endTimes.stream().max(Comparator.comparing(Task::getEndTime));
-                endTime.ifPresent(subtask -> epic.setEndTime(subtask.getEndTime()));
-                epic.setDuration(endTimes.stream().mapToLong(subtask -> subtask.getDuration().toMinutes()).sum());
+                .forEach(subtask -> aggregate.put(subtask, subtask.getStartTime() != null
+                        && !subtask.getDuration().isZero() && sortedTasks.contains(subtask)));
+        if (epic.getId() != null) {
+            epicAggregates.put(epic.getId(), aggregate);
+        }
+        return aggregate;
+    }
+
+    /*
+     * Задачи в sortedTasks не пересекаются между собой, поэтому вместе с началом упорядочены и их окончания.
+     * Достаточно найти ближайшую задачу (кроме самой проверяемой), начинающуюся раньше окончания новой.
+     */
+    protected boolean hasTimeIntersections(Task task) {
+        return intersectsSchedule(task, Set.of());
+    }
+
+    private boolean intersectsSchedule(Task task, Set<UUID> ignoredIds) {
+        if (task.getStartTime() == null || task.getEndTime() == null) {
+            return false;
+        }
+        Iterator<Task> candidates = sortedTasks.headSet(timeProbe(task.getEndTime()), false).descendingIterator();
+        while (candidates.hasNext()) {
+            Task candidate = candidates.next();
+            if (!candidate.equals(task) && !ignoredIds.contains(candidate.getId())) {
+                return checkTimeIntersections(task, candidate);
             }
-        } else {
-            epic.setStartTime(null);
-            epic.setDuration(0L);
-            epic.setEndTime(null);
         }
+        return false;
     }
 
     public boolean checkTimeIntersections(Task task1, Task task2) {
         if (task1.equals(task2)) {
             return false;
         }
-        if (task1.getStartTime() != null && task1.getEndTime() != null
-                && task2.getStartTime() != null && task2.getEndTime() != null) {
-            return (task1.getStartTime().isBefore(task2.getEndTime()) && task1.getEndTime().isAfter(task2.getStartTime()));
-        }
-        return false;
+        return task1.overlaps(task2);
     }
 }
\ No newline at end of file
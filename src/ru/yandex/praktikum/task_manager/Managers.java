@@ -5,7 +5,21 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getHistory(HistorySettings settings) {
+        return settings.isPerClient() ? new PerClientHistoryManager(settings) : getClientHistory(settings);
+    }
+
+    static HistoryManager getClientHistory(HistorySettings settings) {
+        return settings.getStorage() == HistoryStorage.ARRAY
+                ? new ArrayHistoryManager(settings)
+                : new InMemoryHistoryManager(settings);
+    }
 }
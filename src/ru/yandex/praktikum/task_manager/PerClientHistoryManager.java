@@ -0,0 +1,78 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.exceptions.NotFoundException;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static ru.yandex.praktikum.Constants.NOT_FOUND;
+
+/*
+ * Отдельная история для каждого клиента. Клиент текущего запроса задается для потока
+ * через setCurrentClient (см. ClientFilter в HttpTaskServer), без клиента используется общая история.
+ * Число историй ограничено maxClients, вытесняется история клиента, к которой дольше всех не обращались.
+ */
+public class PerClientHistoryManager implements HistoryManager {
+    private static final String DEFAULT_CLIENT = "";
+    private static final ThreadLocal<String> CURRENT_CLIENT = new ThreadLocal<>();
+
+    private final HistorySettings settings;
+    private final Map<String, HistoryManager> histories;
+
+    public PerClientHistoryManager(HistorySettings settings) {
+        this.settings = settings;
+        histories = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, HistoryManager> eldest) {
+                return size() > settings.getMaxClients();
+            }
+        };
+    }
+
+    public static void setCurrentClient(String clientId) {
+        CURRENT_CLIENT.set(clientId);
+    }
+
+    public static void clearCurrentClient() {
+        CURRENT_CLIENT.remove();
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task != null) {
+            histories.computeIfAbsent(currentClient(), client -> Managers.getClientHistory(settings)).add(task);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        HistoryManager history = histories.get(currentClient());
+        return history == null ? List.of() : history.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(UUID after, int limit, boolean newestFirst) {
+        HistoryManager history = histories.get(currentClient());
+        if (history == null) {
+            if (after != null) {
+                throw new NotFoundException("Задачи нет в истории просмотров", NOT_FOUND);
+            }
+            return List.of();
+        }
+        return history.getHistory(after, limit, newestFirst);
+    }
+
+    // Удаленная задача должна пропасть из истории каждого клиента
+    @Override
+    public void remove(UUID id) {
+        histories.values().forEach(history -> history.remove(id));
+    }
+
+    private static String currentClient() {
+        String clientId = CURRENT_CLIENT.get();
+        return clientId == null ? DEFAULT_CLIENT : clientId;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.praktikum.task_manager;
+
+import java.time.Duration;
+
+public class PersistenceMetrics {
+    private final int pendingOperations;
+    private final Duration currentLag;
+    private final Duration maxLag;
+    private final long committedBatches;
+
+    public PersistenceMetrics(int pendingOperations, Duration currentLag, Duration maxLag, long committedBatches) {
+        this.pendingOperations = pendingOperations;
+        this.currentLag = currentLag;
+        this.maxLag = maxLag;
+        this.committedBatches = committedBatches;
+    }
+
+    // Изменения, которые уже применены в памяти, но еще не записаны на диск
+    public int getPendingOperations() {
+        return pendingOperations;
+    }
+
+    // Сколько ждет самое старое незаписанное изменение
+    public Duration getCurrentLag() {
+        return currentLag;
+    }
+
+    // Наибольшая задержка от изменения до окончания его записи
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    public long getCommittedBatches() {
+        return committedBatches;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceMetrics{" +
+                "pendingOperations=" + pendingOperations +
+                ", currentLag=" + currentLag +
+                ", maxLag=" + maxLag +
+                ", committedBatches=" + committedBatches +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+package ru.yandex.praktikum.task_manager;
+
+import java.time.Duration;
+
+public class PersistenceSettings {
+    private SaveMode saveMode = SaveMode.SNAPSHOT;
+    private int compactionThreshold = 1000;
+    private Duration commitWindow = Duration.ZERO;
+    private int maxBatchSize = 128;
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
+    private int loadParallelism = Runtime.getRuntime().availableProcessors();
+    private Durability durability = Durability.NONE;
+    private boolean asyncWrites;
+    private Duration maxLag = Duration.ofMillis(200);
+    private int maxPendingOperations = 10_000;
+
+    public SaveMode getSaveMode() {
+        return saveMode;
+    }
+
+    public void setSaveMode(SaveMode saveMode) {
+        this.saveMode = saveMode;
+    }
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public void setCompactionThreshold(int compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public Duration getCommitWindow() {
+        return commitWindow;
+    }
+
+    // Нулевое окно отключает групповую запись: каждая операция сохраняется сразу в вызывающем потоке
+    public void setCommitWindow(Duration commitWindow) {
+        this.commitWindow = commitWindow;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    public int getLoadParallelism() {
+        return loadParallelism;
+    }
+
+    // Наибольшее число кусков, на которые делится CSV-снимок при загрузке, 1 - разбор в одном потоке
+    public void setLoadParallelism(int loadParallelism) {
+        this.loadParallelism = loadParallelism;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    // Групповая запись всегда делает fsync перед возвратом, уровень определяет только способ записи снимка
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+
+    public boolean isAsyncWrites() {
+        return asyncWrites;
+    }
+
+    // Изменения применяются в памяти сразу, а на диск их переносит фоновый поток, дождаться записи можно через flush()
+    public void setAsyncWrites(boolean asyncWrites) {
+        this.asyncWrites = asyncWrites;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    // Наибольшее время, которое изменение ждет в памяти до начала записи в фоновом режиме
+    public void setMaxLag(Duration maxLag) {
+        this.maxLag = maxLag;
+    }
+
+    public int getMaxPendingOperations() {
+        return maxPendingOperations;
+    }
+
+    // При таком числе незаписанных изменений вызывающий поток ждет записи, чтобы отставание не росло без предела
+    public void setMaxPendingOperations(int maxPendingOperations) {
+        this.maxPendingOperations = maxPendingOperations;
+    }
+
+    public boolean isGroupCommit() {
+        return !commitWindow.isZero();
+    }
+}
@@ -0,0 +1,6 @@
+package ru.yandex.praktikum.task_manager;
+
+public enum SnapshotFormat {
+    CSV,
+    BINARY
+}
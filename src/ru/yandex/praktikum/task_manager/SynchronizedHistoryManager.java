@@ -0,0 +1,44 @@
+package ru.yandex.praktikum.task_manager;
+
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager history;
+    private final Predicate<UUID> stored;
+
+    public SynchronizedHistoryManager(HistoryManager history) {
+        this(history, id -> true);
+    }
+
+    // Просмотр задачи, удаленной между чтением и записью в историю, отсеивается проверкой stored
+    public SynchronizedHistoryManager(HistoryManager history, Predicate<UUID> stored) {
+        this.history = history;
+        this.stored = stored;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        if (task != null && stored.test(task.getId())) {
+            history.add(task);
+        }
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return history.getHistory();
+    }
+
+    @Override
+    public synchronized List<Task> getHistory(UUID after, int limit, boolean newestFirst) {
+        return history.getHistory(after, limit, newestFirst);
+    }
+
+    @Override
+    public synchronized void remove(UUID id) {
+        history.remove(id);
+    }
+}
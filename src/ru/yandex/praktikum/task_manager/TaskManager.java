@@ -4,6 +4,8 @@ import ru.yandex.praktikum.task_tracker.Epic;
 import ru.yandex.praktikum.task_tracker.Subtask;
 import ru.yandex.praktikum.task_tracker.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +28,13 @@ public interface TaskManager {
 
     Subtask getSubtask(UUID id);
 
+    // Чтение без записи в историю просмотров - для выгрузок, отчетов и внутренних вызовов
+    Epic peekEpic(UUID id);
+
+    Task peekTask(UUID id);
+
+    Subtask peekSubtask(UUID id);
+
     UUID createEpic(Epic epic);
 
     UUID createTask(Task task);
@@ -44,9 +53,27 @@ public interface TaskManager {
 
     boolean removeSubtask(UUID id);
 
+    // Все команды проверяются вместе и применяются целиком либо не применяются вовсе; результат - id по порядку команд
+    List<UUID> applyBatch(List<BatchCommand> commands);
+
     List<Subtask> getEpicSubtask(UUID id);
 
     List<Task> getTaskHistory();
 
+    List<Task> getTaskHistory(UUID after, int limit, boolean newestFirst);
+
     List<Task> getPrioritizedTasks();
+
+    // Задачи, пересекающие окно [from, to); null - окно не ограничено с этой стороны
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    // Первые limit задач того же окна
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit);
+
+    // Не более limit ближайших задач, которые еще не закончились к моменту from, включая уже идущую
+    List<Task> getUpcoming(LocalDateTime from, int limit);
+
+    // Самое раннее начало не раньше notBefore, при котором задача длительностью duration закончится не позже notAfter
+    // (null - без ограничения) и ни с чем не пересечется
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime notBefore, LocalDateTime notAfter);
 }
\ No newline at end of file
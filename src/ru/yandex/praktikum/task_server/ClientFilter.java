@@ -0,0 +1,28 @@
+package ru.yandex.praktikum.task_server;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.praktikum.task_manager.PerClientHistoryManager;
+
+import java.io.IOException;
+
+import static ru.yandex.praktikum.Constants.CLIENT_ID;
+
+// Фильтр выполняется в том же потоке, что и обработчик, поэтому клиент запроса можно передать через ThreadLocal
+public class ClientFilter extends Filter {
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        PerClientHistoryManager.setCurrentClient(exchange.getRequestHeaders().getFirst(CLIENT_ID));
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            PerClientHistoryManager.clearCurrentClient();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Определяет клиента запроса по заголовку " + CLIENT_ID;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.yandex.praktikum.task_server;
+
+public enum ExecutionMode {
+    DISPATCHER,
+    THREAD_POOL,
+    VIRTUAL_THREADS
+}
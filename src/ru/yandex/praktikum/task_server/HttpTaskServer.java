@@ -1,48 +1,99 @@
 package ru.yandex.praktikum.task_server;
 
+import com.sun.net.httpserver.Filter;
 import com.sun.net.httpserver.HttpServer;
 import ru.yandex.praktikum.task_manager.Managers;
 import ru.yandex.praktikum.task_manager.TaskManager;
+import ru.yandex.praktikum.task_server.task_handlers.BatchHandler;
 import ru.yandex.praktikum.task_server.task_handlers.EpicHandler;
 import ru.yandex.praktikum.task_server.task_handlers.HistoryHandler;
 import ru.yandex.praktikum.task_server.task_handlers.PrioritizedHandler;
 import ru.yandex.praktikum.task_server.task_handlers.SubtaskHandler;
 import ru.yandex.praktikum.task_server.task_handlers.TaskHandler;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-
-import static ru.yandex.praktikum.Constants.PORT;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpTaskServer {
 
     private final HttpServer httpServer;
     private final TaskManager taskManager;
+    private final ExecutorService executor;
+    private final JsonFormat jsonFormat;
 
     public HttpTaskServer(TaskManager taskManager) {
+        this(taskManager, new ServerSettings());
+    }
+
+    public HttpTaskServer(TaskManager taskManager, ServerSettings settings) {
         try {
             this.taskManager = taskManager;
-            httpServer = HttpServer.create(new InetSocketAddress(PORT), 0);
+            httpServer = HttpServer.create(new InetSocketAddress(settings.getPort()), settings.getBacklog());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        jsonFormat = settings.getJsonFormat();
+        executor = createExecutor(settings);
+        httpServer.setExecutor(executor);
     }
 
     public static void main(String[] args) {
-        HttpTaskServer taskServer = new HttpTaskServer(Managers.getDefault());
+        ServerSettings settings = new ServerSettings();
+        if (args.length > 0) {
+            settings.setExecutionMode(ExecutionMode.valueOf(args[0].toUpperCase()));
+        }
+        TaskManager taskManager = settings.getExecutionMode() == ExecutionMode.DISPATCHER
+                ? Managers.getDefault()
+                : Managers.getConcurrent();
+        HttpTaskServer taskServer = new HttpTaskServer(taskManager, settings);
         taskServer.serverStart();
     }
 
     public void serverStart() {
-        httpServer.createContext("/epics", new EpicHandler(taskManager));
-        httpServer.createContext("/tasks", new TaskHandler(taskManager));
-        httpServer.createContext("/subtasks", new SubtaskHandler(taskManager));
-        httpServer.createContext("/history", new HistoryHandler(taskManager));
-        httpServer.createContext("/prioritized", new PrioritizedHandler(taskManager));
+        Filter clientFilter = new ClientFilter();
+        httpServer.createContext("/epics", new EpicHandler(taskManager, jsonFormat)).getFilters().add(clientFilter);
+        httpServer.createContext("/tasks", new TaskHandler(taskManager, jsonFormat)).getFilters().add(clientFilter);
+        httpServer.createContext("/subtasks", new SubtaskHandler(taskManager, jsonFormat)).getFilters()
+                .add(clientFilter);
+        httpServer.createContext("/history", new HistoryHandler(taskManager, jsonFormat)).getFilters()
+                .add(clientFilter);
+        httpServer.createContext("/prioritized", new PrioritizedHandler(taskManager, jsonFormat)).getFilters()
+                .add(clientFilter);
+        httpServer.createContext("/batch", new BatchHandler(taskManager, jsonFormat)).getFilters().add(clientFilter);
         httpServer.start();
     }
 
     public void serverStop() {
         httpServer.stop(1);
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // Для пула и виртуальных потоков менеджер задач должен быть потокобезопасным (Managers.getConcurrent())
+    private static ExecutorService createExecutor(ServerSettings settings) {
+        switch (settings.getExecutionMode()) {
+            case THREAD_POOL:
+                return new ThreadPoolExecutor(settings.getPoolSize(), settings.getPoolSize(), 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(settings.getQueueCapacity()), namedThreads(),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+            case VIRTUAL_THREADS:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            default:
+                return null;
+        }
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, "http-task-server-" + counter.incrementAndGet());
     }
 }
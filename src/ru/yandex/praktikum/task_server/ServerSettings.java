@@ -0,0 +1,63 @@
+package ru.yandex.praktikum.task_server;
+
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
+
+import static ru.yandex.praktikum.Constants.PORT;
+
+public class ServerSettings {
+    private int port = PORT;
+    private int backlog = 0;
+    private ExecutionMode executionMode = ExecutionMode.DISPATCHER;
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1024;
+    private JsonFormat jsonFormat = JsonFormat.PRETTY;
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    // 0 - значение по умолчанию системы
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public JsonFormat getJsonFormat() {
+        return jsonFormat;
+    }
+
+    public void setJsonFormat(JsonFormat jsonFormat) {
+        this.jsonFormat = jsonFormat;
+    }
+}
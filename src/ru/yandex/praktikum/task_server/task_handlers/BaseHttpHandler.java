@@ -1,38 +1,47 @@
 package ru.yandex.praktikum.task_server.task_handlers;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import ru.yandex.praktikum.exceptions.NotFoundException;
 import ru.yandex.praktikum.task_manager.TaskManager;
-import ru.yandex.praktikum.task_server.task_serializers.TaskDurationAdapter;
-import ru.yandex.praktikum.task_server.task_serializers.TaskStartTimeDeserializer;
-import ru.yandex.praktikum.task_server.task_serializers.TaskStartTimeSerializer;
+import ru.yandex.praktikum.task_server.task_serializers.GsonProvider;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
+import ru.yandex.praktikum.task_tracker.Task;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.util.Collection;
 
+import static ru.yandex.praktikum.Constants.CONFLICTS;
 import static ru.yandex.praktikum.Constants.ERROR_MESSAGE;
+import static ru.yandex.praktikum.Constants.FORMATTER;
+import static ru.yandex.praktikum.Constants.NOT_ACCEPTABLE;
+import static ru.yandex.praktikum.Constants.POST;
+import static ru.yandex.praktikum.Constants.PRETTY;
+import static ru.yandex.praktikum.Constants.START_TIME;
+import static ru.yandex.praktikum.Constants.SUCCESS;
 
 public abstract class BaseHttpHandler implements HttpHandler {
 
     protected static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
     protected final TaskManager manager;
-    protected JsonObject object;
-    protected final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class, new TaskStartTimeSerializer())
-            .registerTypeAdapter(LocalDateTime.class, new TaskStartTimeDeserializer())
-            .registerTypeAdapter(Duration.class, new TaskDurationAdapter())
-            .setPrettyPrinting()
-            .create();
+    protected final Gson gson;
 
     public BaseHttpHandler(TaskManager manager) {
+        this(manager, JsonFormat.PRETTY);
+    }
+
+    public BaseHttpHandler(TaskManager manager, JsonFormat format) {
         this.manager = manager;
+        this.gson = GsonProvider.getGson(format);
     }
 
     enum Endpoint {
@@ -45,6 +54,14 @@ public abstract class BaseHttpHandler implements HttpHandler {
         UNKNOWN
     }
 
+    // Тело читается только у POST: JsonReader разбирает поток запроса сразу в TaskRequest, без промежуточной строки и дерева
+    protected TaskRequest readRequest(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals(POST)) {
+            return null;
+        }
+        return TaskRequest.read(exchange.getRequestBody());
+    }
+
     protected void sendText(HttpExchange exchange, String responseText, int responseCode) throws IOException {
         byte[] response = responseText.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
@@ -53,10 +70,85 @@ public abstract class BaseHttpHandler implements HttpHandler {
         exchange.close();
     }
 
+    protected void sendJson(HttpExchange exchange, Object body, int responseCode) throws IOException {
+        sendText(exchange, responseGson(exchange).toJson(body), responseCode);
+    }
+
+    /*
+     * Длина ответа 0 - chunked передача: список пишется в тело ответа по мере сериализации, без промежуточной строки.
+     * Заголовки с кодом 200 к этому моменту уже отправлены, поэтому при сбое посреди списка второй ответ с ошибкой
+     * невозможен: обмен обрывается без сброса буфера, а клиент получает неполный JSON, который не разберет.
+     */
+    protected void sendList(HttpExchange exchange, String name, Collection<? extends Task> items) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(SUCCESS, 0);
+        Gson responseGson = responseGson(exchange);
+        JsonWriter writer = responseGson.newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), DEFAULT_CHARSET)));
+        try {
+            writer.beginObject();
+            writer.name(name);
+            writer.beginArray();
+            for (Task item : items) {
+                responseGson.toJson(item, item.getClass(), writer);
+            }
+            writer.endArray();
+            writer.endObject();
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            // Писатель не закрывается, чтобы не дописать буфер: обмен закрывается ниже, ответ остается неполным
+        }
+        exchange.close();
+    }
+
     protected void sendError(HttpExchange exchange, NotFoundException e) throws IOException {
-        object = new JsonObject();
+        JsonObject object = new JsonObject();
+        object.addProperty(ERROR_MESSAGE, e.getMessage());
+        sendJson(exchange, object, e.getStatusCode());
+    }
+
+    // При пересечении по времени клиенту возвращаются задачи, с которыми пересеклась новая, и ближайшее свободное
+    // время той же длительности, чтобы не подбирать начало повторными запросами
+    protected void sendConflict(HttpExchange exchange, NotFoundException e, Task task) throws IOException {
+        if (e.getStatusCode() != NOT_ACCEPTABLE || task.getEndTime() == null) {
+            sendError(exchange, e);
+            return;
+        }
+        Gson responseGson = responseGson(exchange);
+        JsonArray conflicts = new JsonArray();
+        for (Task conflict : manager.getPrioritizedTasks(task.getStartTime(), task.getEndTime())) {
+            if (!conflict.getId().equals(task.getId())) {
+                conflicts.add(responseGson.toJsonTree(conflict));
+            }
+        }
+        JsonObject object = new JsonObject();
         object.addProperty(ERROR_MESSAGE, e.getMessage());
-        String error = gson.toJson(object);
-        sendText(exchange, error, e.getStatusCode());
+        object.add(CONFLICTS, conflicts);
+        object.addProperty(START_TIME, manager.findFreeSlot(task.getDuration(), task.getStartTime(), null)
+                .format(FORMATTER));
+        sendJson(exchange, object, e.getStatusCode());
+    }
+
+    // Формат ответа сервера можно переопределить для отдельного запроса параметром ?pretty=true|false
+    protected Gson responseGson(HttpExchange exchange) {
+        String pretty = getQueryParameter(exchange, PRETTY);
+        if (pretty == null) {
+            return gson;
+        }
+        return GsonProvider.getGson(Boolean.parseBoolean(pretty) ? JsonFormat.PRETTY : JsonFormat.COMPACT);
+    }
+
+    protected String getQueryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            String[] pair = parameter.split("=", 2);
+            if (URLDecoder.decode(pair[0], DEFAULT_CHARSET).equals(name)) {
+                return pair.length == 2 ? URLDecoder.decode(pair[1], DEFAULT_CHARSET) : "";
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,115 @@
+package ru.yandex.praktikum.task_server.task_handlers;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import ru.yandex.praktikum.exceptions.NotFoundException;
+import ru.yandex.praktikum.task_manager.BatchCommand;
+import ru.yandex.praktikum.task_manager.TaskManager;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
+import ru.yandex.praktikum.task_tracker.Epic;
+import ru.yandex.praktikum.task_tracker.Statuses;
+import ru.yandex.praktikum.task_tracker.Subtask;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import static ru.yandex.praktikum.Constants.BAD_REQUEST;
+import static ru.yandex.praktikum.Constants.BATCH;
+import static ru.yandex.praktikum.Constants.ERROR_DESCRIPTION;
+import static ru.yandex.praktikum.Constants.ERROR_MESSAGE;
+import static ru.yandex.praktikum.Constants.IDS;
+import static ru.yandex.praktikum.Constants.INTERNAL_ERROR;
+import static ru.yandex.praktikum.Constants.NOT_FOUND;
+import static ru.yandex.praktikum.Constants.POST;
+import static ru.yandex.praktikum.Constants.SUCCESS;
+
+// POST /batch: массив команд {"operation": "CREATE|UPDATE|DELETE", "type": "EPIC|TASK|SUBTASK", ...поля задачи}
+public class BatchHandler extends BaseHttpHandler {
+
+    public BatchHandler(TaskManager manager, JsonFormat format) {
+        super(manager, format);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] pathParts = exchange.getRequestURI().getPath().split("/");
+            List<TaskRequest> requests = null;
+            if (exchange.getRequestMethod().equals(POST) && pathParts.length == 2 && pathParts[1].equals(BATCH)) {
+                requests = TaskRequest.readAll(exchange.getRequestBody());
+            }
+            if (requests == null) {
+                JsonObject object = new JsonObject();
+                object.addProperty(ERROR_MESSAGE, "Некорректно вызван метод");
+                sendJson(exchange, object, NOT_FOUND);
+                return;
+            }
+            applyBatch(exchange, requests);
+        } catch (NotFoundException e) {
+            sendError(exchange, e);
+        } catch (NullPointerException e) {
+            JsonObject object = new JsonObject();
+            object.addProperty(ERROR_MESSAGE, "Некорретно переданы входные параметры");
+            sendJson(exchange, object, BAD_REQUEST);
+        } catch (Exception e) {
+            JsonObject object = new JsonObject();
+            object.addProperty(ERROR_MESSAGE, e.getMessage());
+            object.addProperty(ERROR_DESCRIPTION, Arrays.toString(e.getStackTrace()));
+            sendJson(exchange, object, INTERNAL_ERROR);
+        }
+    }
+
+    private void applyBatch(HttpExchange exchange, List<TaskRequest> requests) throws IOException {
+        if (requests.isEmpty()) {
+            throw new NotFoundException("Необходимо передать хотя бы одну команду", BAD_REQUEST);
+        }
+        List<BatchCommand> commands = new ArrayList<>(requests.size());
+        for (TaskRequest request : requests) {
+            commands.add(toCommand(request));
+        }
+        List<UUID> ids = manager.applyBatch(commands);
+
+        JsonArray array = new JsonArray(ids.size());
+        ids.forEach(id -> array.add(id.toString()));
+        JsonObject object = new JsonObject();
+        object.add(IDS, array);
+        sendJson(exchange, object, SUCCESS);
+    }
+
+    private BatchCommand toCommand(TaskRequest request) {
+        switch (Objects.requireNonNull(request.getOperation())) {
+            case DELETE:
+                return BatchCommand.delete(Objects.requireNonNull(request.getType()),
+                        Objects.requireNonNull(request.getId()));
+            case UPDATE:
+                return BatchCommand.update(toItem(request, Objects.requireNonNull(request.getId())));
+            default:
+                return BatchCommand.create(toItem(request, null));
+        }
+    }
+
+    private Task toItem(TaskRequest request, UUID id) {
+        String name = Objects.requireNonNull(request.getName());
+        String description = Objects.requireNonNull(request.getDescription());
+        Statuses status = id == null ? Statuses.NEW : request.getStatus();
+        // Как и в одиночных запросах: при создании длительность по умолчанию 0, при обновлении обязательна
+        Long duration = id == null && request.getDuration() == null ? Long.valueOf(0L) : request.getDuration();
+        switch (Objects.requireNonNull(request.getType())) {
+            case EPIC:
+                Epic epic = new Epic(name, description);
+                epic.setId(id);
+                return epic;
+            case SUBTASK:
+                return new Subtask(name, description, id, status, request.getStartTime(), duration,
+                        Objects.requireNonNull(request.getEpicId()));
+            default:
+                return new Task(name, description, id, status, request.getStartTime(), duration);
+        }
+    }
+}
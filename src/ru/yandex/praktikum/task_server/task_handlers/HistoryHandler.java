@@ -1,28 +1,33 @@
 package ru.yandex.praktikum.task_server.task_handlers;
 
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.praktikum.exceptions.NotFoundException;
 import ru.yandex.praktikum.task_manager.TaskManager;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
 import ru.yandex.praktikum.task_tracker.Task;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 
+import static ru.yandex.praktikum.Constants.AFTER;
+import static ru.yandex.praktikum.Constants.BAD_REQUEST;
 import static ru.yandex.praktikum.Constants.ERROR_DESCRIPTION;
 import static ru.yandex.praktikum.Constants.ERROR_MESSAGE;
 import static ru.yandex.praktikum.Constants.GET;
 import static ru.yandex.praktikum.Constants.HISTORY;
 import static ru.yandex.praktikum.Constants.INTERNAL_ERROR;
+import static ru.yandex.praktikum.Constants.LIMIT;
+import static ru.yandex.praktikum.Constants.NEWEST_FIRST;
 import static ru.yandex.praktikum.Constants.NOT_FOUND;
-import static ru.yandex.praktikum.Constants.SUCCESS;
 
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
 
-    public HistoryHandler(TaskManager manager) {
-        super(manager);
+    public HistoryHandler(TaskManager manager, JsonFormat format) {
+        super(manager, format);
     }
 
     @Override
@@ -34,25 +39,37 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
             if (requestMethod.equals(GET) && pathParts.length == 2 && pathParts[1].equals(HISTORY)) {
                 getHistory(exchange);
             } else {
-                object = new JsonObject();
+                JsonObject object = new JsonObject();
                 object.addProperty(ERROR_MESSAGE, "Некорректно вызван метод");
-                String error = gson.toJson(object);
-                sendText(exchange, error, NOT_FOUND);
+                sendJson(exchange, object, NOT_FOUND);
             }
+        } catch (NotFoundException e) {
+            sendError(exchange, e);
+        } catch (IllegalArgumentException e) {
+            JsonObject object = new JsonObject();
+            object.addProperty(ERROR_MESSAGE, "Некорретно переданы входные параметры");
+            sendJson(exchange, object, BAD_REQUEST);
         } catch (Exception e) {
-            object = new JsonObject();
+            JsonObject object = new JsonObject();
             object.addProperty(ERROR_MESSAGE, e.getMessage());
             object.addProperty(ERROR_DESCRIPTION, Arrays.toString(e.getStackTrace()));
-            String error = gson.toJson(object);
-            sendText(exchange, error, INTERNAL_ERROR);
+            sendJson(exchange, object, INTERNAL_ERROR);
         }
     }
 
     private void getHistory(HttpExchange exchange) throws IOException {
-        List<Task> tasks = manager.getTaskHistory();
-        object = new JsonObject();
-        object.add(HISTORY, gson.fromJson(gson.toJson(tasks), JsonElement.class));
-        String response = gson.toJson(object);
-        sendText(exchange, response, SUCCESS);
+        String limit = getQueryParameter(exchange, LIMIT);
+        String after = getQueryParameter(exchange, AFTER);
+        if (limit == null && after == null) {
+            sendList(exchange, HISTORY, manager.getTaskHistory());
+            return;
+        }
+        int pageSize = limit != null ? Integer.parseInt(limit) : Integer.MAX_VALUE;
+        if (pageSize <= 0) {
+            throw new NotFoundException("Размер страницы должен быть положительным", BAD_REQUEST);
+        }
+        List<Task> tasks = manager.getTaskHistory(after != null ? UUID.fromString(after) : null, pageSize,
+                Boolean.parseBoolean(getQueryParameter(exchange, NEWEST_FIRST)));
+        sendList(exchange, HISTORY, tasks);
     }
 }
@@ -1,28 +1,43 @@
 package ru.yandex.praktikum.task_server.task_handlers;
 
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import ru.yandex.praktikum.exceptions.NotFoundException;
 import ru.yandex.praktikum.task_manager.TaskManager;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
 import ru.yandex.praktikum.task_tracker.Task;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
+import static ru.yandex.praktikum.Constants.BAD_REQUEST;
+import static ru.yandex.praktikum.Constants.DURATION;
 import static ru.yandex.praktikum.Constants.ERROR_DESCRIPTION;
 import static ru.yandex.praktikum.Constants.ERROR_MESSAGE;
+import static ru.yandex.praktikum.Constants.FORMATTER;
+import static ru.yandex.praktikum.Constants.FREE;
+import static ru.yandex.praktikum.Constants.FROM;
 import static ru.yandex.praktikum.Constants.GET;
 import static ru.yandex.praktikum.Constants.INTERNAL_ERROR;
+import static ru.yandex.praktikum.Constants.LIMIT;
+import static ru.yandex.praktikum.Constants.NOT_AFTER;
+import static ru.yandex.praktikum.Constants.NOT_BEFORE;
 import static ru.yandex.praktikum.Constants.NOT_FOUND;
 import static ru.yandex.praktikum.Constants.PRIORITIZED;
+import static ru.yandex.praktikum.Constants.START_TIME;
 import static ru.yandex.praktikum.Constants.SUCCESS;
+import static ru.yandex.praktikum.Constants.TO;
 
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
 
-    public PrioritizedHandler(TaskManager manager) {
-        super(manager);
+    public PrioritizedHandler(TaskManager manager, JsonFormat format) {
+        super(manager, format);
     }
 
     @Override
@@ -33,26 +48,65 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
 
             if (requestMethod.equals(GET) && pathParts.length == 2 && pathParts[1].equals(PRIORITIZED)) {
                 getPrioritized(exchange);
+            } else if (requestMethod.equals(GET) && pathParts.length == 3 && pathParts[1].equals(PRIORITIZED)
+                    && pathParts[2].equals(FREE)) {
+                getFreeSlot(exchange);
             } else {
-                object = new JsonObject();
+                JsonObject object = new JsonObject();
                 object.addProperty(ERROR_MESSAGE, "Некорректно вызван метод");
-                String error = gson.toJson(object);
-                sendText(exchange, error, NOT_FOUND);
+                sendJson(exchange, object, NOT_FOUND);
             }
+        } catch (NotFoundException e) {
+            sendError(exchange, e);
+        } catch (IllegalArgumentException | NullPointerException | DateTimeParseException e) {
+            JsonObject object = new JsonObject();
+            object.addProperty(ERROR_MESSAGE, "Некорретно переданы входные параметры");
+            sendJson(exchange, object, BAD_REQUEST);
         } catch (Exception e) {
-            object = new JsonObject();
+            JsonObject object = new JsonObject();
             object.addProperty(ERROR_MESSAGE, e.getMessage());
             object.addProperty(ERROR_DESCRIPTION, Arrays.toString(e.getStackTrace()));
-            String error = gson.toJson(object);
-            sendText(exchange, error, INTERNAL_ERROR);
+            sendJson(exchange, object, INTERNAL_ERROR);
         }
     }
 
+    // ?from=&to= - окно расписания, ?limit= - ближайшие задачи начиная с from (по умолчанию с текущего момента)
     private void getPrioritized(HttpExchange exchange) throws IOException {
-        List<Task> tasks = manager.getPrioritizedTasks();
-        object = new JsonObject();
-        object.add(PRIORITIZED, gson.fromJson(gson.toJson(tasks), JsonElement.class));
-        String response = gson.toJson(object);
-        sendText(exchange, response, SUCCESS);
+        String from = getQueryParameter(exchange, FROM);
+        String to = getQueryParameter(exchange, TO);
+        String limit = getQueryParameter(exchange, LIMIT);
+        if (from == null && to == null && limit == null) {
+            sendList(exchange, PRIORITIZED, manager.getPrioritizedTasks());
+            return;
+        }
+        LocalDateTime fromTime = from != null ? LocalDateTime.parse(from, FORMATTER) : null;
+        LocalDateTime toTime = to != null ? LocalDateTime.parse(to, FORMATTER) : null;
+        int pageSize = limit != null ? Integer.parseInt(limit) : Integer.MAX_VALUE;
+        if (pageSize <= 0) {
+            throw new NotFoundException("Размер страницы должен быть положительным", BAD_REQUEST);
+        }
+        List<Task> tasks;
+        if (toTime == null && limit != null) {
+            tasks = manager.getUpcoming(fromTime != null ? fromTime : LocalDateTime.now(), pageSize);
+        } else {
+            tasks = manager.getPrioritizedTasks(fromTime, toTime, pageSize);
+        }
+        sendList(exchange, PRIORITIZED, tasks);
+    }
+
+    // ?duration= в минутах, ?notBefore= (по умолчанию текущий момент) и необязательный ?notAfter=
+    private void getFreeSlot(HttpExchange exchange) throws IOException {
+        String duration = Objects.requireNonNull(getQueryParameter(exchange, DURATION));
+        String notBefore = getQueryParameter(exchange, NOT_BEFORE);
+        String notAfter = getQueryParameter(exchange, NOT_AFTER);
+        LocalDateTime notBeforeTime = notBefore != null ? LocalDateTime.parse(notBefore, FORMATTER)
+                : LocalDateTime.now();
+        LocalDateTime notAfterTime = notAfter != null ? LocalDateTime.parse(notAfter, FORMATTER) : null;
+
+        LocalDateTime slot = manager.findFreeSlot(Duration.ofMinutes(Long.parseLong(duration)), notBeforeTime,
+                notAfterTime);
+        JsonObject object = new JsonObject();
+        object.addProperty(START_TIME, slot.format(FORMATTER));
+        sendJson(exchange, object, SUCCESS);
     }
 }
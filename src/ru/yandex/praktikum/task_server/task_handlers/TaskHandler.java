@@ -1,51 +1,43 @@
 package ru.yandex.praktikum.task_server.task_handlers;
 
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.sun.net.httpserver.HttpExchange;
 import ru.yandex.praktikum.exceptions.NotFoundException;
 import ru.yandex.praktikum.task_manager.TaskManager;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
 import ru.yandex.praktikum.task_tracker.Task;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 import static ru.yandex.praktikum.Constants.BAD_REQUEST;
 import static ru.yandex.praktikum.Constants.CREATED_OK;
 import static ru.yandex.praktikum.Constants.DELETE;
-import static ru.yandex.praktikum.Constants.DESCRIPTION;
-import static ru.yandex.praktikum.Constants.DURATION;
 import static ru.yandex.praktikum.Constants.ERROR_DESCRIPTION;
 import static ru.yandex.praktikum.Constants.ERROR_MESSAGE;
-import static ru.yandex.praktikum.Constants.FORMATTER;
 import static ru.yandex.praktikum.Constants.GET;
 import static ru.yandex.praktikum.Constants.ID;
 import static ru.yandex.praktikum.Constants.INTERNAL_ERROR;
-import static ru.yandex.praktikum.Constants.NAME;
 import static ru.yandex.praktikum.Constants.NOT_FOUND;
 import static ru.yandex.praktikum.Constants.POST;
 import static ru.yandex.praktikum.Constants.RESULT;
-import static ru.yandex.praktikum.Constants.START_TIME;
 import static ru.yandex.praktikum.Constants.SUCCESS;
 import static ru.yandex.praktikum.Constants.TASKS;
 
 public class TaskHandler extends BaseHttpHandler {
 
-    public TaskHandler(TaskManager manager) {
-        super(manager);
+    public TaskHandler(TaskManager manager, JsonFormat format) {
+        super(manager, format);
     }
 
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try {
-            InputStream inputStream = exchange.getRequestBody();
-            String body = new String(inputStream.readAllBytes(), DEFAULT_CHARSET);
-            Endpoint endpoint = getEndpoint(exchange, body);
+            TaskRequest request = readRequest(exchange);
+            Endpoint endpoint = getEndpoint(exchange, request);
 
             switch (endpoint) {
                 case GET_TASKS:
@@ -55,37 +47,34 @@ public class TaskHandler extends BaseHttpHandler {
                     getTaskById(exchange);
                     break;
                 case CREATE_TASK:
-                    createTask(exchange, body);
+                    createTask(exchange, request);
                     break;
                 case UPDATE_TASK:
-                    updateTask(exchange, body);
+                    updateTask(exchange, request);
                     break;
                 case DELETE_TASK:
                     deleteTaskById(exchange);
                     break;
                 default:
-                    object = new JsonObject();
+                    JsonObject object = new JsonObject();
                     object.addProperty(ERROR_MESSAGE, "Некорректно вызван метод");
-                    String error = gson.toJson(object);
-                    sendText(exchange, error, NOT_FOUND);
+                    sendJson(exchange, object, NOT_FOUND);
             }
         } catch (NotFoundException e) {
             sendError(exchange, e);
         } catch (NullPointerException e) {
-            object = new JsonObject();
+            JsonObject object = new JsonObject();
             object.addProperty(ERROR_MESSAGE, "Некорретно переданы входные параметры");
-            String error = gson.toJson(object);
-            sendText(exchange, error, BAD_REQUEST);
+            sendJson(exchange, object, BAD_REQUEST);
         } catch (Exception e) {
-            object = new JsonObject();
+            JsonObject object = new JsonObject();
             object.addProperty(ERROR_MESSAGE, e.getMessage());
             object.addProperty(ERROR_DESCRIPTION, Arrays.toString(e.getStackTrace()));
-            String error = gson.toJson(object);
-            sendText(exchange, error, INTERNAL_ERROR);
+            sendJson(exchange, object, INTERNAL_ERROR);
         }
     }
 
-    private Endpoint getEndpoint(HttpExchange exchange, String body) {
+    private Endpoint getEndpoint(HttpExchange exchange, TaskRequest request) {
         String[] pathParts = exchange.getRequestURI().getPath().split("/");
         String requestMethod = exchange.getRequestMethod();
 
@@ -93,13 +82,11 @@ public class TaskHandler extends BaseHttpHandler {
             if (requestMethod.equals(GET)) {
                 return Endpoint.GET_TASKS;
             }
-            if (requestMethod.equals(POST) && !body.isEmpty()) {
-                JsonElement element = JsonParser.parseString(body);
-                JsonObject object = element.getAsJsonObject();
-                if (object.isEmpty()) {
+            if (requestMethod.equals(POST) && request != null) {
+                if (request.isEmpty()) {
                     throw new NotFoundException("Необходимо передать атрибуты задачи", BAD_REQUEST);
                 }
-                return object.get(ID) == null ? Endpoint.CREATE_TASK : Endpoint.UPDATE_TASK;
+                return request.getId() == null ? Endpoint.CREATE_TASK : Endpoint.UPDATE_TASK;
             }
         }
         if (pathParts.length == 3 && pathParts[1].equals(TASKS)) {
@@ -115,48 +102,51 @@ public class TaskHandler extends BaseHttpHandler {
 
     private void getTasks(HttpExchange exchange) throws IOException {
         List<Task> tasks = manager.getTasks();
-        object = new JsonObject();
-        object.add(TASKS, gson.fromJson(gson.toJson(tasks), JsonElement.class));
-        String response = gson.toJson(object);
-        sendText(exchange, response, SUCCESS);
+        sendList(exchange, TASKS, tasks);
     }
 
     private void getTaskById(HttpExchange exchange) throws IOException {
         UUID id = UUID.fromString(exchange.getRequestURI().getPath().split("/")[2]);
         Task task = manager.getTask(id);
-        String response = gson.toJson(task);
-        sendText(exchange, response, SUCCESS);
+        sendJson(exchange, task, SUCCESS);
 
     }
 
-    private void createTask(HttpExchange exchange, String body) throws IOException {
-        object = JsonParser.parseString(body).getAsJsonObject();
-        String name = object.get(NAME).getAsString();
-        String description = object.get(DESCRIPTION).getAsString();
-        LocalDateTime startTime = object.get(START_TIME) != null
-                ? LocalDateTime.parse(object.get(START_TIME).getAsString(), FORMATTER)
-                : null;
-        long duration = object.get(DURATION) != null ? object.get(DURATION).getAsLong() : 0L;
-
-        UUID taskId = manager.createTask(new Task(name, description, startTime, duration));
-        object = new JsonObject();
+    private void createTask(HttpExchange exchange, TaskRequest request) throws IOException {
+        String name = Objects.requireNonNull(request.getName());
+        String description = Objects.requireNonNull(request.getDescription());
+        long duration = request.getDuration() != null ? request.getDuration() : 0L;
+
+        Task task = new Task(name, description, request.getStartTime(), duration);
+        UUID taskId;
+        try {
+            taskId = manager.createTask(task);
+        } catch (NotFoundException e) {
+            sendConflict(exchange, e, task);
+            return;
+        }
+        JsonObject object = new JsonObject();
         object.addProperty(ID, taskId.toString());
-        String response = gson.toJson(object);
-        sendText(exchange, response, SUCCESS);
+        sendJson(exchange, object, SUCCESS);
     }
 
-    private void updateTask(HttpExchange exchange, String body) throws IOException {
-        Task task = gson.fromJson(body, Task.class);
-        manager.updateTask(task);
+    private void updateTask(HttpExchange exchange, TaskRequest request) throws IOException {
+        Task task = new Task(request.getName(), request.getDescription(), request.getId(), request.getStatus(),
+                request.getStartTime(), request.getDuration());
+        try {
+            manager.updateTask(task);
+        } catch (NotFoundException e) {
+            sendConflict(exchange, e, task);
+            return;
+        }
         sendText(exchange, "", CREATED_OK);
     }
 
     private void deleteTaskById(HttpExchange exchange) throws IOException {
         UUID id = UUID.fromString(exchange.getRequestURI().getPath().split("/")[2]);
         boolean result = manager.removeTask(id);
-        object = new JsonObject();
+        JsonObject object = new JsonObject();
         object.addProperty(RESULT, result);
-        String response = gson.toJson(object);
-        sendText(exchange, response, SUCCESS);
+        sendJson(exchange, object, SUCCESS);
     }
 }
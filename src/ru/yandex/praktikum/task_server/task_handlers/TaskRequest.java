@@ -0,0 +1,163 @@
+package ru.yandex.praktikum.task_server.task_handlers;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import ru.yandex.praktikum.exceptions.NotFoundException;
+import ru.yandex.praktikum.task_manager.BatchOperation;
+import ru.yandex.praktikum.task_tracker.Statuses;
+import ru.yandex.praktikum.task_tracker.TaskTypes;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static ru.yandex.praktikum.Constants.BAD_REQUEST;
+import static ru.yandex.praktikum.Constants.DESCRIPTION;
+import static ru.yandex.praktikum.Constants.DURATION;
+import static ru.yandex.praktikum.Constants.EPIC_ID;
+import static ru.yandex.praktikum.Constants.FORMATTER;
+import static ru.yandex.praktikum.Constants.ID;
+import static ru.yandex.praktikum.Constants.NAME;
+import static ru.yandex.praktikum.Constants.OPERATION;
+import static ru.yandex.praktikum.Constants.START_TIME;
+import static ru.yandex.praktikum.Constants.STATUS;
+import static ru.yandex.praktikum.Constants.TYPE;
+
+// Тело запроса на запись: разбирается потоково за один проход, остальные поля задачи (endTime, idSubtasks) пропускаются
+class TaskRequest {
+    private UUID id;
+    private String name;
+    private String description;
+    private Statuses status;
+    private LocalDateTime startTime;
+    private Long duration;
+    private UUID epicId;
+    private BatchOperation operation;
+    private TaskTypes type;
+    private boolean empty = true;
+
+    // Пустое тело - null, маршрутизация в этом случае считает метод вызванным некорректно
+    static TaskRequest read(InputStream body) throws IOException {
+        JsonReader reader = jsonReader(body);
+        if (reader == null) {
+            return null;
+        }
+        TaskRequest request = read(reader);
+        requireEnd(reader);
+        return request;
+    }
+
+    // Пакет команд - массив таких же объектов с полями operation и type
+    static List<TaskRequest> readAll(InputStream body) throws IOException {
+        JsonReader reader = jsonReader(body);
+        if (reader == null) {
+            return null;
+        }
+        List<TaskRequest> requests = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            requests.add(read(reader));
+        }
+        reader.endArray();
+        requireEnd(reader);
+        return requests;
+    }
+
+    // JsonReader декодирует поток сам, без копии тела в byte[] и String; на пустом теле первый peek бросает EOFException
+    private static JsonReader jsonReader(InputStream body) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            reader.peek();
+        } catch (EOFException e) {
+            return null;
+        }
+        return reader;
+    }
+
+    private static void requireEnd(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new NotFoundException("Тело запроса должно содержать один объект или массив", BAD_REQUEST);
+        }
+    }
+
+    static TaskRequest read(JsonReader reader) throws IOException {
+        TaskRequest request = new TaskRequest();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            request.empty = false;
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case ID -> request.id = UUID.fromString(reader.nextString());
+                case NAME -> request.name = reader.nextString();
+                case DESCRIPTION -> request.description = reader.nextString();
+                case STATUS -> request.status = readEnum(Statuses.class, reader.nextString());
+                case START_TIME -> request.startTime = LocalDateTime.parse(reader.nextString(), FORMATTER);
+                case DURATION -> request.duration = reader.nextLong();
+                case EPIC_ID -> request.epicId = UUID.fromString(reader.nextString());
+                case OPERATION -> request.operation = readEnum(BatchOperation.class, reader.nextString());
+                case TYPE -> request.type = readEnum(TaskTypes.class, reader.nextString());
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return request;
+    }
+
+    private static <E extends Enum<E>> E readEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException("Некорректное значение " + value, BAD_REQUEST);
+        }
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    Statuses getStatus() {
+        return status;
+    }
+
+    LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    Long getDuration() {
+        return duration;
+    }
+
+    UUID getEpicId() {
+        return epicId;
+    }
+
+    BatchOperation getOperation() {
+        return operation;
+    }
+
+    TaskTypes getType() {
+        return type;
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.praktikum.task_server.task_serializers;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public class GsonProvider {
+    private static final Gson PRETTY_GSON = baseBuilder().setPrettyPrinting().create();
+    private static final Gson COMPACT_GSON = baseBuilder().create();
+
+    public static Gson getGson(JsonFormat format) {
+        return format == JsonFormat.COMPACT ? COMPACT_GSON : PRETTY_GSON;
+    }
+
+    private static GsonBuilder baseBuilder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new TaskStartTimeAdapter().nullSafe())
+                .registerTypeAdapter(Duration.class, new TaskDurationAdapter().nullSafe())
+                .registerTypeAdapterFactory(new TaskEndTimeFactory());
+    }
+
+    // Gson создает задачи в обход конструкторов, поэтому окончание пересчитывается после чтения так же, как в сеттере
+    private static class TaskEndTimeFactory implements TypeAdapterFactory {
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (!Task.class.isAssignableFrom(type.getRawType())) {
+                return null;
+            }
+            TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+            return new TypeAdapter<>() {
+                @Override
+                public void write(JsonWriter out, T value) throws IOException {
+                    delegate.write(out, value);
+                }
+
+                @Override
+                public T read(JsonReader in) throws IOException {
+                    T value = delegate.read(in);
+                    if (value instanceof Task task) {
+                        task.setStartTime(task.getStartTime());
+                    }
+                    return value;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package ru.yandex.praktikum.task_server.task_serializers;
+
+public enum JsonFormat {
+    PRETTY,
+    COMPACT
+}
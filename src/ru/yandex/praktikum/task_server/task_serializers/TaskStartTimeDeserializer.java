@@ -1,19 +0,0 @@
-package ru.yandex.praktikum.task_server.task_serializers;
-
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
-
-import java.lang.reflect.Type;
-import java.time.LocalDateTime;
-
-import static ru.yandex.praktikum.Constants.FORMATTER;
-
-public class TaskStartTimeDeserializer implements JsonDeserializer<LocalDateTime> {
-
-    @Override
-    public LocalDateTime deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-        return LocalDateTime.parse(jsonElement.getAsString(), FORMATTER);
-    }
-}
@@ -1,18 +0,0 @@
-package ru.yandex.praktikum.task_server.task_serializers;
-
-import com.google.gson.JsonElement;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
-import java.lang.reflect.Type;
-import java.time.LocalDateTime;
-
-import static ru.yandex.praktikum.Constants.FORMATTER;
-
-public class TaskStartTimeSerializer implements JsonSerializer<LocalDateTime> {
-
-    @Override
-    public JsonElement serialize(LocalDateTime localDateTime, Type type, JsonSerializationContext jsonSerializationContext) {
-        return new JsonPrimitive(FORMATTER.format(localDateTime));
-    }
-}
@@ -1,14 +1,16 @@
 package ru.yandex.praktikum.task_tracker;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.UUID;
 
 import static ru.yandex.praktikum.task_tracker.TaskTypes.EPIC;
 
 public class Epic extends Task {
-    private final List<UUID> idSubtasks = new ArrayList<>();
+    // Порядок добавления сохраняется, проверка и удаление id подзадачи за O(1)
+    private final Set<UUID> idSubtasks = new LinkedHashSet<>();
 
     public Epic(String name, String description) {
         super(name, description, null, 0L);
@@ -16,37 +18,40 @@ public class Epic extends Task {
 
     public Epic(String name, String description, UUID id, Statuses status, LocalDateTime startTime,
                 Long durationInMinutes, LocalDateTime endTime) {
-        super(name, description, startTime, durationInMinutes);
-        this.id = id;
-        this.status = status;
-        this.endTime = endTime;
+        super(name, description, id, status, startTime, durationInMinutes, endTime);
     }
 
     public boolean addSubtask(UUID idSubtask) {
         if (id.equals(idSubtask)) {
             return false;
         }
-        idSubtasks.add(idSubtask);
-        return true;
+        return idSubtasks.add(idSubtask);
     }
 
-    public List<UUID> getIdSubtasks() {
+    public Set<UUID> getIdSubtasks() {
         return idSubtasks;
     }
 
+    // Окончание эпика задается по подзадачам, а не вычисляется по началу и продолжительности
     @Override
-    public LocalDateTime getEndTime() {
-        return endTime;
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+        updateTime(endTime);
+    }
+
+    @Override
+    public void setDuration(Long durationInMinutes) {
+        duration = Duration.ofMinutes(durationInMinutes);
     }
 
     public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
+        updateTime(endTime);
     }
 
     @Override
     public String toStringFile() {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s", id, EPIC, name, status, description, startTime,
-                duration.toMinutes(), endTime);
+        return id + "," + EPIC + "," + name + "," + status + "," + description + "," + startTime + ","
+                + duration.toMinutes() + "," + endTime;
     }
 
     @Override
@@ -27,8 +27,8 @@ public class Subtask extends Task {
 
     @Override
     public String toStringFile() {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s", id, SUBTASK, name, status, description, startTime,
-                duration.toMinutes(), getEndTime(), epicId);
+        return id + "," + SUBTASK + "," + name + "," + status + "," + description + "," + startTime + ","
+                + duration.toMinutes() + "," + getEndTime() + "," + epicId;
     }
 
     @Override
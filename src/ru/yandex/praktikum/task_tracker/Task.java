@@ -2,6 +2,7 @@ package ru.yandex.praktikum.task_tracker;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -14,7 +15,16 @@ public class Task {
     protected Statuses status;
     protected LocalDateTime startTime;
     protected Duration duration;
+    // Вычисляется при создании и изменении времени или продолжительности, а не при каждом чтении
     protected LocalDateTime endTime;
+    /*
+     * Начало и окончание в наносекундах от эпохи (UTC) для сравнений без объектов дат, пересчитываются вместе
+     * с endTime и в JSON не попадают. Даты вне 1677-2262 годов в long не помещаются, для них сравнение идет
+     * по LocalDateTime.
+     */
+    private transient long startNanos;
+    private transient long endNanos;
+    private transient boolean compactTime;
 
     public Task(String name, String description, LocalDateTime startTime, Long durationInMinutes) {
         this.name = name;
@@ -22,6 +32,7 @@ public class Task {
         status = Statuses.NEW;
         this.startTime = startTime;
         duration = Duration.ofMinutes(durationInMinutes);
+        updateTime(endTimeOf(startTime, duration));
     }
 
     public Task(String name, String description, UUID id, Statuses status, LocalDateTime startTime, Long durationInMinutes) {
@@ -31,6 +42,19 @@ public class Task {
         this.status = status;
         this.startTime = startTime;
         duration = Duration.ofMinutes(durationInMinutes);
+        updateTime(endTimeOf(startTime, duration));
+    }
+
+    // Для эпика: окончание задается по подзадачам, а не вычисляется по началу и продолжительности
+    protected Task(String name, String description, UUID id, Statuses status, LocalDateTime startTime,
+                   Long durationInMinutes, LocalDateTime endTime) {
+        this.name = name;
+        this.description = description;
+        this.id = id;
+        this.status = status;
+        this.startTime = startTime;
+        duration = Duration.ofMinutes(durationInMinutes);
+        updateTime(endTime);
     }
 
     public String getName() {
@@ -67,6 +91,7 @@ public class Task {
 
     public void setDuration(Long durationInMinutes) {
         duration = Duration.ofMinutes(durationInMinutes);
+        updateTime(endTimeOf(startTime, duration));
     }
 
     public Duration getDuration() {
@@ -75,6 +100,7 @@ public class Task {
 
     public void setStartTime(LocalDateTime startTime) {
         this.startTime = startTime;
+        updateTime(endTimeOf(startTime, duration));
     }
 
     public LocalDateTime getStartTime() {
@@ -82,16 +108,54 @@ public class Task {
     }
 
     public LocalDateTime getEndTime() {
-        if (startTime != null && !duration.isZero()) {
-            endTime = startTime.plus(duration);
-            return endTime;
+        return endTime;
+    }
+
+    // Интервалы [начало, окончание) пересекаются, задачи без времени ни с чем не пересекаются
+    public boolean overlaps(Task other) {
+        if (startTime == null || endTime == null || other.startTime == null || other.endTime == null) {
+            return false;
+        }
+        if (compactTime && other.compactTime) {
+            return startNanos < other.endNanos && endNanos > other.startNanos;
         }
-        return null;
+        return startTime.isBefore(other.endTime) && endTime.isAfter(other.startTime);
+    }
+
+    // Порядок по началу для индекса расписания, у сравниваемых задач время начала задано
+    public int compareStartTime(Task other) {
+        if (compactTime && other.compactTime) {
+            return Long.compare(startNanos, other.startNanos);
+        }
+        return startTime.compareTo(other.startTime);
+    }
+
+    // Запоминает окончание вместе с представлением в наносекундах; у эпика окончание задается по подзадачам
+    protected final void updateTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+        compactTime = isCompact(startTime) && (endTime == null || isCompact(endTime));
+        if (compactTime) {
+            startNanos = toEpochNanos(startTime);
+            endNanos = endTime != null ? toEpochNanos(endTime) : startNanos;
+        }
+    }
+
+    private static LocalDateTime endTimeOf(LocalDateTime startTime, Duration duration) {
+        return startTime != null && duration != null && !duration.isZero() ? startTime.plus(duration) : null;
+    }
+
+    private static boolean isCompact(LocalDateTime time) {
+        return time != null && Math.abs(time.toEpochSecond(ZoneOffset.UTC)) < Long.MAX_VALUE / 1_000_000_000L - 1;
+    }
+
+    private static long toEpochNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
     }
 
     public String toStringFile() {
-        return String.format("%s,%s,%s,%s,%s,%s,%s,%s", id, TASK, name, status, description, startTime,
-                duration.toMinutes(), getEndTime());
+        // Конкатенация вместо String.format: строка собирается для каждой задачи при каждом снимке
+        return id + "," + TASK + "," + name + "," + status + "," + description + "," + startTime + ","
+                + duration.toMinutes() + "," + getEndTime();
     }
 
     @Override
@@ -0,0 +1,81 @@
+package ru.yandex.praktikum.task_manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrayHistoryManagerTest {
+    private HistorySettings settings;
+    private List<Task> tasks;
+
+    @BeforeEach
+    void setUp() {
+        settings = new HistorySettings();
+        settings.setStorage(HistoryStorage.ARRAY);
+        tasks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Task task = new Task("Задача " + i, "Описание", null, 0L);
+            task.setId(UUID.randomUUID());
+            tasks.add(task);
+        }
+    }
+
+    @Test
+    void whenRandomAddAndRemoveThenHistoryMatchesLinkedHistory() {
+        HistoryManager arrayHistory = Managers.getHistory(settings);
+        HistoryManager linkedHistory = Managers.getDefaultHistory();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            Task task = tasks.get(random.nextInt(tasks.size()));
+            if (random.nextInt(3) == 0) {
+                arrayHistory.remove(task.getId());
+                linkedHistory.remove(task.getId());
+            } else {
+                arrayHistory.add(task);
+                linkedHistory.add(task);
+            }
+        }
+
+        assertEquals(linkedHistory.getHistory(), arrayHistory.getHistory(), "История на массивах отличается");
+        Task cursor = linkedHistory.getHistory().get(linkedHistory.getHistory().size() / 2);
+        assertEquals(linkedHistory.getHistory(cursor.getId(), 10, true),
+                arrayHistory.getHistory(cursor.getId(), 10, true), "Страница истории на массивах отличается");
+    }
+
+    @Test
+    void whenMaxEntriesExceededThenOldestViewsEvicted() {
+        settings.setMaxEntries(10);
+        HistoryManager history = Managers.getHistory(settings);
+
+        tasks.forEach(history::add);
+        history.add(tasks.get(95));
+
+        List<Task> expectedHistory = new ArrayList<>(tasks.subList(90, 100));
+        expectedHistory.remove(tasks.get(95));
+        expectedHistory.add(tasks.get(95));
+        assertEquals(expectedHistory, history.getHistory(), "Должны остаться последние просмотренные задачи");
+    }
+
+    @Test
+    void whenAllTasksRemovedThenHistoryIsEmpty() {
+        HistoryManager history = Managers.getHistory(settings);
+
+        tasks.forEach(history::add);
+        tasks.forEach(task -> history.remove(task.getId()));
+
+        assertTrue(history.getHistory().isEmpty(), "История просмотра должна быть пустой");
+
+        history.add(tasks.getFirst());
+
+        assertEquals(List.of(tasks.getFirst()), history.getHistory(), "Освобожденный слот должен переиспользоваться");
+    }
+}
@@ -0,0 +1,195 @@
+package ru.yandex.praktikum.task_manager;
+
+import org.junit.jupiter.api.BeforeEach;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+import ru.yandex.praktikum.exceptions.NotFoundException;
+import ru.yandex.praktikum.task_server.task_serializers.GsonProvider;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
+import ru.yandex.praktikum.task_tracker.Epic;
+import ru.yandex.praktikum.task_tracker.Subtask;
+import ru.yandex.praktikum.task_tracker.Task;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    private static final int THREADS_COUNT = 8;
+
+    @BeforeEach
+    void setUp() {
+        super.taskManager = (ConcurrentTaskManager) Managers.getConcurrent();
+    }
+
+    @Test
+    void whenSubtasksCreatedInParallelThenAllAreStored() throws Exception {
+        int subtasksPerEpic = 250;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+        List<Epic> epics = new ArrayList<>();
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int i = 0; i < THREADS_COUNT; i++) {
+            Epic epic = new Epic("Эпик " + i, "Параллельный");
+            taskManager.createEpic(epic);
+            epics.add(epic);
+            int offset = i * subtasksPerEpic;
+            results.add(executor.submit(() -> {
+                for (int k = 0; k < subtasksPerEpic; k++) {
+                    taskManager.createSubtask(new Subtask("Подзадача", "Описание",
+                            current.plusMinutes((offset + k) * durationInMinutes), durationInMinutes, epic));
+                    taskManager.getEpicSubtask(epic.getId());
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS_COUNT * subtasksPerEpic, taskManager.getSubtasks().size(),
+                "Некорректное количество подзадач");
+        assertEquals(THREADS_COUNT * subtasksPerEpic, taskManager.getPrioritizedTasks().size(),
+                "Некорректное количество задач в сортированном списке");
+        epics.forEach(epic -> assertEquals(subtasksPerEpic, epic.getIdSubtasks().size(),
+                "Некорректное количество подзадач в эпике"));
+    }
+
+    @Test
+    void whenSameIntervalCreatedInParallelThenOnlyOneTaskIsStored() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < THREADS_COUNT; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    taskManager.createTask(new Task("Позвонить другу", "Одно время", current, durationInMinutes));
+                    return true;
+                } catch (NotFoundException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            created += result.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS), "Потоки должны завершиться");
+        assertEquals(1, created, "Пересекающиеся задачи не должны создаваться параллельно");
+        assertEquals(1, taskManager.getTasks().size(), "Должна остаться только одна задача");
+    }
+
+    @Test
+    void whenTasksViewedInParallelThenHistoryContainsEachTaskOnce() throws Exception {
+        int tasksPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+        List<UUID> taskIds = new ArrayList<>();
+        for (int i = 0; i < THREADS_COUNT * tasksPerThread; i++) {
+            taskIds.add(taskManager.createTask(new Task("Задача " + i, "Без времени", null, 0L)));
+        }
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int i = 0; i < THREADS_COUNT; i++) {
+            List<UUID> threadTaskIds = taskIds.subList(i * tasksPerThread, (i + 1) * tasksPerThread);
+            results.add(executor.submit(() -> {
+                for (int repeat = 0; repeat < 3; repeat++) {
+                    threadTaskIds.forEach(taskManager::getTask);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertEquals(new HashSet<>(taskIds), new HashSet<>(taskManager.getTaskHistory()
+                .stream().map(Task::getId).toList()), "В истории должны быть все просмотренные задачи");
+        assertEquals(taskIds.size(), taskManager.getTaskHistory().size(), "Задачи в истории не должны повторяться");
+
+        taskManager.removeTask(taskIds.getFirst());
+
+        assertEquals(taskIds.size() - 1, taskManager.getTaskHistory().size(),
+                "Удаленная задача должна пропасть из истории");
+    }
+
+    @Test
+    void whenViewArrivesAfterTaskRemovedThenTaskStaysOutOfHistory() {
+        UUID firstId = taskManager.createTask(new Task("Позвонить другу", "Без времени", null, 0L));
+        UUID secondId = taskManager.createTask(new Task("Купить продукты", "Без времени", null, 0L));
+        Task first = taskManager.peekTask(firstId);
+        taskManager.getTask(secondId);
+
+        // Просмотр прочитал задачу до удаления, а в историю записывает уже после него
+        taskManager.removeTask(firstId);
+        taskManager.manager.add(first);
+
+        assertEquals(List.of(secondId), taskManager.getTaskHistory().stream().map(Task::getId).toList(),
+                "Удаленная задача не должна вернуться в историю");
+    }
+
+    @Test
+    void whenEpicsReadWhileSubtasksAddedThenEachEpicIsSerializedWhole() throws Exception {
+        int subtasksPerEpic = 500;
+        int epicsCount = THREADS_COUNT / 2;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+        Gson gson = GsonProvider.getGson(JsonFormat.COMPACT);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<Integer>> readers = new ArrayList<>();
+
+        for (int i = 0; i < epicsCount; i++) {
+            Epic epic = new Epic("Эпик " + i, "Параллельный");
+            taskManager.createEpic(epic);
+            int offset = i * subtasksPerEpic;
+            writers.add(executor.submit(() -> {
+                for (int k = 0; k < subtasksPerEpic; k++) {
+                    taskManager.createSubtask(new Subtask("Подзадача", "Описание",
+                            current.plusMinutes((offset + k) * durationInMinutes), durationInMinutes, epic));
+                }
+            }));
+        }
+        for (int i = 0; i < THREADS_COUNT - epicsCount; i++) {
+            readers.add(executor.submit(() -> {
+                int reads = 0;
+                do {
+                    for (Epic epic : taskManager.getEpicTasks()) {
+                        JsonObject json = gson.toJsonTree(taskManager.getEpic(epic.getId())).getAsJsonObject();
+                        int subtasksCount = json.getAsJsonArray("idSubtasks").size();
+                        assertTrue(subtasksCount <= subtasksPerEpic, "Некорректный список подзадач эпика");
+                        assertEquals(subtasksCount > 0, json.has("startTime"),
+                                "Копия эпика должна сниматься целиком между изменениями");
+                        reads++;
+                    }
+                } while (writing.get());
+                return reads;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        writing.set(false);
+        for (Future<Integer> reader : readers) {
+            assertTrue(reader.get() > 0, "Читатели должны успеть прочитать эпики");
+        }
+        executor.shutdown();
+
+        taskManager.getEpicTasks().forEach(epic -> assertEquals(subtasksPerEpic, epic.getIdSubtasks().size(),
+                "Некорректное количество подзадач в эпике"));
+    }
+}
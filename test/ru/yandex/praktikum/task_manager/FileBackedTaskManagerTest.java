@@ -18,12 +18,19 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -132,7 +139,7 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
         assertEquals(epicId, epics.getFirst().getId(), "Некорректный эпик");
         assertEquals(stringTask, tasks.getFirst().toStringFile(), "Некорректная задача");
         assertEquals(stringSubtask, subtasks.getFirst().toStringFile(), "Некорректная подзадача");
-        assertEquals(epics.getFirst().getIdSubtasks().getFirst(), subtasks.getFirst().getId(),
+        assertEquals(epics.getFirst().getIdSubtasks().iterator().next(), subtasks.getFirst().getId(),
                 "В эпике некорректный id подзадачи");
 
         assertEquals(current.minusHours(1), epics.getFirst().getStartTime(),
@@ -162,4 +169,462 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
                 () -> FileBackedTaskManager.loadFromFile(Path.of("Test").toFile()),
                 "Выброшена некорректная ошибка");
     }
+
+    @Test
+    public void whenJournalModeThenEachMutationAppendsOneRecord() throws IOException {
+        taskManager = new FileBackedTaskManager(testFile, SaveMode.JOURNAL);
+        taskManager.createEpic(epic1);
+        UUID taskId = taskManager.createTask(task1);
+        taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки", current.plusHours(1),
+                durationInMinutes, epic1));
+        taskManager.removeTask(taskId);
+        int expectedJournalRecords = 4;
+
+        List<String> journal = Files.readAllLines(taskManager.getJournalFile().toPath(), StandardCharsets.UTF_8);
+
+        assertEquals(expectedJournalRecords, journal.size(), "Некорректное количество записей в журнале");
+        assertEquals("DELETE,TASK," + taskId, journal.getLast(), "Некорректная запись об удалении задачи");
+        assertEquals(0, testFile.length(), "Снимок не должен перезаписываться до сжатия журнала");
+    }
+
+    @Test
+    public void whenLoadFromJournalThenSnapshotAndJournalAreReplayed() {
+        taskManager = new FileBackedTaskManager(testFile, SaveMode.JOURNAL);
+        taskManager.createEpic(epic1);
+        taskManager.createEpic(epic2);
+        taskManager.createTask(task1);
+        UUID subtaskId = taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки",
+                current.plusHours(1), durationInMinutes, epic1));
+        Subtask updatedSubtask = new Subtask("Взять молоко", "Для кашки", subtaskId, Statuses.DONE,
+                current.plusHours(2), durationInMinutes, epic1.getId());
+        taskManager.updateSubtask(updatedSubtask);
+        taskManager.removeEpic(epic2.getId());
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile, SaveMode.JOURNAL);
+        Epic restoredEpic = restored.getEpic(epic1.getId());
+
+        assertEquals(1, restored.getEpicTasks().size(), "Удаленный эпик не должен восстанавливаться");
+        assertEquals(1, restored.getTasks().size(), "Некорректное количество задач после восстановления");
+        assertEquals(updatedSubtask.toStringFile(), restored.getSubtask(subtaskId).toStringFile(),
+                "Подзадача должна восстановиться в обновленном виде");
+        assertEquals(Statuses.DONE, restoredEpic.getStatus(), "Статус эпика должен быть пересчитан");
+        assertEquals(current.plusHours(2), restoredEpic.getStartTime(), "Время эпика должно быть пересчитано");
+        assertEquals(EXPECTED_TASK_COUNT, restored.getPrioritizedTasks().size(),
+                "Некорректное количество задач в сортированном списке");
+        assertFalse(restored.getJournalFile().exists(), "После восстановления журнал должен быть сжат");
+    }
+
+    @Test
+    public void whenCrashAfterSnapshotReplacedThenOldJournalIsNotReplayed() throws IOException {
+        taskManager = new FileBackedTaskManager(testFile, SaveMode.JOURNAL);
+        UUID epicId = taskManager.createEpic(epic1);
+        taskManager.compact();
+        taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки", current, durationInMinutes, epic1));
+        taskManager.removeEpic(epicId);
+        taskManager.createTask(task1);
+        byte[] oldJournal = Files.readAllBytes(taskManager.getJournalFile().toPath());
+        taskManager.compact();
+        // Сбой после замены снимка: журнал уже переименован, но еще не удален
+        Files.write(Path.of(taskManager.getJournalFile().getPath() + ".compacting"), oldJournal);
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile, SaveMode.JOURNAL);
+
+        assertTrue(restored.getEpicTasks().isEmpty(), "Удаленный эпик не должен вернуться из старого журнала");
+        assertTrue(restored.getSubtasks().isEmpty(), "Подзадача удаленного эпика не должна вернуться");
+        assertEquals(List.of(task1), restored.getTasks(), "Некорректный список задач после восстановления");
+        assertFalse(new File(taskManager.getJournalFile().getPath() + ".compacting").exists(),
+                "Учтенный в снимке журнал должен быть удален");
+    }
+
+    @Test
+    public void whenCrashBeforeSnapshotReplacedThenJournalIsReplayed() throws IOException {
+        taskManager = new FileBackedTaskManager(testFile, SaveMode.JOURNAL);
+        taskManager.createEpic(epic1);
+        taskManager.compact();
+        UUID subtaskId = taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки", current,
+                durationInMinutes, epic1));
+        // Сбой до замены снимка: новый снимок недописан во временном файле, журнал уже переименован
+        Files.writeString(Path.of(testFile.getPath() + ".tmp"), "id,type");
+        Files.move(taskManager.getJournalFile().toPath(),
+                Path.of(taskManager.getJournalFile().getPath() + ".compacting"));
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile, SaveMode.JOURNAL);
+
+        assertEquals(List.of(subtaskId), restored.getSubtasks().stream().map(Subtask::getId).toList(),
+                "Журнал, не попавший в снимок, должен быть применен");
+        assertFalse(new File(testFile.getPath() + ".tmp").exists(), "Недописанный снимок должен быть удален");
+    }
+
+    @Test
+    public void whenJournalReachedThresholdThenItIsCompactedIntoSnapshot() throws IOException {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(SaveMode.JOURNAL);
+        settings.setCompactionThreshold(3);
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        int expectedLinesIntoFile = 4;
+
+        try (BufferedReader fileReader = new BufferedReader(new FileReader(testFile, StandardCharsets.UTF_8))) {
+            assertEquals(expectedLinesIntoFile, fileReader.lines().count(), "Некорректное количество записей в файле");
+        }
+        assertFalse(taskManager.getJournalFile().exists(), "Журнал должен быть очищен после сжатия");
+    }
+
+    @Test
+    public void whenGroupCommitThenConcurrentMutationsAreDurableOnReturn() throws Exception {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(SaveMode.JOURNAL);
+        settings.setCommitWindow(Duration.ofMillis(20));
+        int threadsCount = 8;
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        List<Future<UUID>> results = new ArrayList<>();
+
+        for (int i = 0; i < threadsCount; i++) {
+            String name = "Задача " + i;
+            results.add(executor.submit(() -> taskManager.createTask(new Task(name, "Без времени", null, 0L))));
+        }
+        for (Future<UUID> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        List<String> journal = Files.readAllLines(taskManager.getJournalFile().toPath(), StandardCharsets.UTF_8);
+        taskManager.close();
+
+        assertEquals(threadsCount, journal.size(), "Все подтвержденные изменения должны быть в журнале");
+        assertEquals(threadsCount, FileBackedTaskManager.loadFromFile(testFile).getTasks().size(),
+                "Некорректное количество задач после восстановления");
+    }
+
+    @Test
+    public void whenReadersRunAlongsideWritersThenReadsSeeConsistentState() throws Exception {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(SaveMode.JOURNAL);
+        settings.setDurability(Durability.NONE);
+        int threadsCount = 4;
+        int operationsCount = 2_000;
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount * 2);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int i = 0; i < threadsCount; i++) {
+            int writer = i;
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < operationsCount; j++) {
+                    LocalDateTime startTime = current.plusMinutes((writer * operationsCount + j) * durationInMinutes);
+                    UUID id = taskManager.createTask(new Task("Задача " + j, "Из потока", startTime,
+                            durationInMinutes));
+                    taskManager.getTask(id);
+                    if (j % 2 == 0) {
+                        taskManager.removeTask(id);
+                    }
+                }
+            }));
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < operationsCount; j++) {
+                    List<Task> prioritized = taskManager.getPrioritizedTasks();
+                    for (int k = 1; k < prioritized.size(); k++) {
+                        assertFalse(prioritized.get(k).getStartTime().isBefore(prioritized.get(k - 1).getStartTime()),
+                                "Список по приоритету должен быть упорядочен");
+                    }
+                    taskManager.getTasks();
+                    taskManager.getTaskHistory();
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        assertEquals(threadsCount * operationsCount / 2, taskManager.getTasks().size(),
+                "Некорректное количество задач после параллельной работы");
+        assertEquals(taskManager.getTasks().size(), taskManager.getPrioritizedTasks().size(),
+                "Индекс расписания должен совпадать с хранилищем");
+        taskManager.close();
+    }
+
+    @Test
+    public void whenGroupCommitInSnapshotModeThenFileIsWrittenBeforeReturn() throws IOException {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setCommitWindow(Duration.ofMillis(5));
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        taskManager.createTask(task1);
+        int expectedLinesIntoFile = 2;
+
+        assertEquals(expectedLinesIntoFile, Files.readAllLines(testFile.toPath(), StandardCharsets.UTF_8).size(),
+                "Задача должна быть записана в файл до возврата из метода");
+
+        taskManager.close();
+        assertThrows(ManagerSaveException.class, () -> taskManager.createTask(task2),
+                "После закрытия менеджер не должен принимать изменения");
+    }
+
+    @Test
+    public void whenBinarySnapshotThenLoadRestoresSameTasks() throws IOException {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSnapshotFormat(SnapshotFormat.BINARY);
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        task2.setDescription(null);
+        taskManager.createTask(task2);
+        UUID subtaskId = taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки",
+                current.plusHours(2), durationInMinutes, epic1));
+
+        assertTrue(BinarySnapshot.isBinary(testFile), "Снимок должен быть записан в бинарном формате");
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile, settings);
+
+        assertEquals(task1.toStringFile(), restored.getTask(task1.getId()).toStringFile(),
+                "Задача должна восстановиться без изменений");
+        assertEquals(current, restored.getTask(task1.getId()).getStartTime(), "Время должно сохраняться точно");
+        assertEquals(task2.toStringFile(), restored.getTask(task2.getId()).toStringFile(),
+                "Пустое описание должно восстановиться");
+        assertEquals(taskManager.getSubtask(subtaskId).toStringFile(), restored.getSubtask(subtaskId).toStringFile(),
+                "Подзадача должна восстановиться без изменений");
+        assertEquals(epic1.toStringFile(), restored.getEpic(epic1.getId()).toStringFile(),
+                "Эпик должен восстановиться вместе со временем и статусом");
+        int expectedPrioritizedCount = 3;
+        assertEquals(expectedPrioritizedCount, restored.getPrioritizedTasks().size(),
+                "Некорректное количество задач в сортированном списке");
+
+        File csvFile = File.createTempFile("taskExport", ".csv");
+        restored.exportCsv(csvFile);
+        FileBackedTaskManager imported = FileBackedTaskManager.loadFromFile(csvFile);
+
+        assertEquals(restored.getSubtasks().size() + restored.getTasks().size() + restored.getEpicTasks().size(),
+                imported.getSubtasks().size() + imported.getTasks().size() + imported.getEpicTasks().size(),
+                "Экспорт в CSV должен содержать все задачи");
+    }
+
+    @Test
+    public void whenBinarySnapshotHasUnknownVersionThenThrowManagerUploadException() throws IOException {
+        Files.write(testFile.toPath(), new byte[]{0x4B, 0x41, 0x4E, 0x42, 0x00, 0x7F, 0x00, 0x00, 0x00, 0x00});
+
+        assertThrows(ManagerUploadException.class, () -> FileBackedTaskManager.loadFromFile(testFile),
+                "Выброшена некорректная ошибка");
+    }
+
+    @Test
+    public void whenSubtasksStoredBeforeEpicThenParallelLoadLinksThem() throws IOException {
+        int subtasksCount = 5000;
+        UUID epicId = UUID.randomUUID();
+        List<String> rows = new ArrayList<>();
+        rows.add("id,type,name,status,description,startTime,durationInMinutes,endTime,epic");
+        for (int i = 0; i < subtasksCount; i++) {
+            LocalDateTime startTime = current.plusMinutes(i * durationInMinutes);
+            rows.add(String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s", UUID.randomUUID(), TaskTypes.SUBTASK,
+                    "Подзадача " + i, i == 0 ? Statuses.DONE : Statuses.NEW, "Описание", startTime,
+                    durationInMinutes, startTime.plusMinutes(durationInMinutes), epicId));
+        }
+        rows.add(String.format("%s,%s,%s,%s,%s,%s,%s,%s", epicId, TaskTypes.EPIC, "Поход в магазин",
+                Statuses.NEW, "Встречаем гостей", null, 0, null));
+        Files.write(testFile.toPath(), rows, StandardCharsets.UTF_8);
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setLoadParallelism(4);
+
+        taskManager = FileBackedTaskManager.loadFromFile(testFile, settings);
+        Epic epic = taskManager.getEpic(epicId);
+
+        assertEquals(subtasksCount, taskManager.getSubtasks().size(), "Некорректное количество подзадач");
+        assertEquals(subtasksCount, epic.getIdSubtasks().size(), "Все подзадачи должны быть связаны с эпиком");
+        assertEquals(subtasksCount, taskManager.getPrioritizedTasks().size(),
+                "Некорректное количество задач в сортированном списке");
+        assertEquals(Statuses.IN_PROGRESS, epic.getStatus(), "Статус эпика должен быть пересчитан");
+        assertEquals(current, epic.getStartTime(), "Время эпика должно быть пересчитано");
+        assertEquals(rows.get(1).split(",")[0], epic.getIdSubtasks().iterator().next().toString(),
+                "Подзадачи в эпике должны идти в порядке строк файла");
+    }
+
+    @Test
+    public void whenAtomicDurabilityThenSnapshotIsReplacedWithoutTemporaryFile() {
+        for (Durability durability : List.of(Durability.ATOMIC, Durability.FSYNC)) {
+            PersistenceSettings settings = new PersistenceSettings();
+            settings.setDurability(durability);
+            taskManager = new FileBackedTaskManager(testFile, settings);
+            taskManager.createEpic(epic1);
+            taskManager.createTask(task1);
+            taskManager.removeTask(task1.getId());
+            taskManager.createTask(task2);
+
+            FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile, settings);
+
+            assertEquals(List.of(task2), restored.getTasks(), "Снимок должен содержать последнее состояние");
+            assertEquals(1, restored.getEpicTasks().size(), "Некорректное количество эпиков");
+            assertFalse(new File(testFile.getPath() + ".tmp").exists(),
+                    "Временный файл не должен оставаться после записи");
+            taskManager.clearTasks();
+            taskManager.clearEpicTasks();
+        }
+    }
+
+    @Test
+    public void whenAsyncWritesThenFlushMakesChangesDurable() {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(SaveMode.JOURNAL);
+        settings.setAsyncWrites(true);
+        settings.setMaxLag(Duration.ofMinutes(1));
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки", current.plusHours(2),
+                durationInMinutes, epic1));
+
+        int expectedPending = 3;
+        assertEquals(expectedPending, taskManager.getPersistenceMetrics().getPendingOperations(),
+                "Изменения должны ждать фоновой записи");
+        assertFalse(taskManager.getJournalFile().exists(), "До записи журнал не должен появиться");
+
+        taskManager.flush();
+        PersistenceMetrics metrics = taskManager.getPersistenceMetrics();
+
+        assertEquals(0, metrics.getPendingOperations(), "После flush не должно остаться незаписанных изменений");
+        assertEquals(1, metrics.getCommittedBatches(), "Изменения должны записаться одним батчем");
+        assertEquals(Duration.ZERO, metrics.getCurrentLag(), "Отставание после flush должно быть нулевым");
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(List.of(task1), restored.getTasks(), "Задача должна быть записана");
+        assertEquals(1, restored.getSubtasks().size(), "Подзадача должна быть записана");
+        taskManager.close();
+    }
+
+    @Test
+    public void whenAsyncManagerClosedThenPendingChangesAreWritten() {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setAsyncWrites(true);
+        settings.setMaxLag(Duration.ofMinutes(1));
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+
+        taskManager.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(2, restored.getTasks().size(), "При закрытии должны записаться все изменения");
+        assertThrows(ManagerSaveException.class, () -> taskManager.createTask(new Task("Позвонить другу",
+                "После закрытия", null, 0L)), "Закрытый менеджер не должен принимать изменения");
+    }
+
+    @Test
+    public void whenSubtaskUpdatedThenEpicRowIsRewritten() {
+        taskManager.createEpic(epic1);
+        UUID subtaskId = taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки", current,
+                durationInMinutes, epic1));
+        Subtask subtask = taskManager.getSubtask(subtaskId);
+        taskManager.updateSubtask(new Subtask(subtask.getName(), subtask.getDescription(), subtaskId, Statuses.DONE,
+                current.plusHours(1), durationInMinutes, epic1.getId()));
+
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile);
+
+        assertEquals(epic1.toStringFile(), restored.getEpic(epic1.getId()).toStringFile(),
+                "Строка эпика должна обновиться вместе с подзадачей");
+        assertEquals(Statuses.DONE, restored.getEpic(epic1.getId()).getStatus(), "Некорректный статус эпика");
+    }
+
+    @Test
+    public void whenSubtasksRemovedByBatchOrClearThenEpicRowIsRewritten() throws IOException {
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        UUID subtaskId = taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки", null, Statuses.DONE,
+                current.plusDays(1), durationInMinutes, epic1.getId()));
+
+        taskManager.applyBatch(List.of(BatchCommand.delete(TaskTypes.SUBTASK, subtaskId)));
+
+        assertTrue(Files.readAllLines(testFile.toPath(), StandardCharsets.UTF_8)
+                        .contains(taskManager.getEpic(epic1.getId()).toStringFile()),
+                "Строка эпика должна обновиться после удаления подзадачи пакетом");
+
+        taskManager.createSubtask(new Subtask("Взять хлеб", "Для бутербродов", null, Statuses.DONE,
+                current.plusDays(2), durationInMinutes, epic1.getId()));
+        taskManager.clearSubtasks();
+        List<String> lines = Files.readAllLines(testFile.toPath(), StandardCharsets.UTF_8);
+
+        assertTrue(lines.contains(taskManager.getEpic(epic1.getId()).toStringFile()),
+                "Строка эпика должна обновиться после очистки подзадач");
+        assertTrue(lines.contains(taskManager.getTask(task1.getId()).toStringFile()),
+                "Строка задачи не должна теряться после очистки подзадач");
+    }
+
+    @Test
+    public void whenTaskChangedSeveralTimesInOneBatchThenJournalKeepsOneRecord() throws IOException {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(SaveMode.JOURNAL);
+        settings.setAsyncWrites(true);
+        settings.setMaxLag(Duration.ofMinutes(1));
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        UUID taskId = taskManager.createTask(task1);
+        for (int i = 1; i <= 3; i++) {
+            taskManager.updateTask(new Task("Выгулять собаку " + i, "Обновлено", taskId, Statuses.IN_PROGRESS,
+                    current, durationInMinutes));
+        }
+        taskManager.createTask(task2);
+        taskManager.removeTask(task2.getId());
+
+        taskManager.flush();
+        List<String> journal = Files.readAllLines(taskManager.getJournalFile().toPath(), StandardCharsets.UTF_8);
+        int expectedRecords = 3;
+
+        assertEquals(expectedRecords, journal.size(), "Повторные изменения задачи должны схлопнуться в одну запись");
+        assertEquals("Выгулять собаку 3", FileBackedTaskManager.loadFromFile(testFile).getTask(taskId).getName(),
+                "Должно восстановиться последнее состояние задачи");
+        taskManager.close();
+    }
+
+    @Test
+    public void whenBatchAppliedThenJournalIsAppendedOnce() throws IOException {
+        PersistenceSettings settings = new PersistenceSettings();
+        settings.setSaveMode(SaveMode.JOURNAL);
+        taskManager = new FileBackedTaskManager(testFile, settings);
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        List<BatchCommand> commands = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            commands.add(BatchCommand.create(new Subtask("Подзадача " + i, "Из пакета",
+                    current.plusHours(1).plusMinutes(i * durationInMinutes), durationInMinutes, epic1)));
+        }
+        commands.add(BatchCommand.delete(TaskTypes.TASK, task1.getId()));
+
+        taskManager.applyBatch(commands);
+        List<String> journal = Files.readAllLines(taskManager.getJournalFile().toPath(), StandardCharsets.UTF_8);
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(testFile, settings);
+
+        assertEquals(2 + commands.size(), journal.size(), "Каждая команда пакета должна попасть в журнал");
+        assertTrue(journal.get(2).startsWith("DELETE"), "Удаления пакета должны идти в журнале первыми");
+        assertTrue(restored.getTasks().isEmpty(), "Задача должна быть удалена");
+        assertEquals(10, restored.getSubtasks().size(), "Некорректное количество подзадач");
+        assertEquals(taskManager.peekEpic(epic1.getId()).toStringFile(), restored.getEpic(epic1.getId()).toStringFile(),
+                "Эпик должен восстановиться вместе со временем подзадач пакета");
+    }
+
+    @Test
+    public void whenTaskCreatedAgainWithSameIdThenFileKeepsStoredVersion() throws IOException {
+        for (SaveMode saveMode : SaveMode.values()) {
+            File file = File.createTempFile("taskFile", ".csv");
+            taskManager = new FileBackedTaskManager(file, saveMode);
+            Epic epic = new Epic("Сходить в магазин", "Купить продукты");
+            taskManager.createEpic(epic);
+            UUID taskId = taskManager.createTask(new Task("Позвонить другу", "Исходная", current, durationInMinutes));
+            UUID subtaskId = taskManager.createSubtask(new Subtask("Взять молоко", "Исходная", current.plusHours(1),
+                    durationInMinutes, epic));
+
+            Task changedTask = new Task("Изменено", "Повтор", taskId, Statuses.DONE, current, durationInMinutes);
+            Subtask changedSubtask = new Subtask("Изменено", "Повтор", subtaskId, Statuses.DONE,
+                    current.plusHours(1), durationInMinutes, epic.getId());
+            taskManager.createTask(changedTask);
+            taskManager.createSubtask(changedSubtask);
+            taskManager.applyBatch(List.of(BatchCommand.create(changedTask)));
+            FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, saveMode);
+
+            assertEquals(taskManager.peekTask(taskId).toStringFile(), restored.getTask(taskId).toStringFile(),
+                    "Повторное создание не должно менять сохраненную задачу в режиме " + saveMode);
+            assertEquals(taskManager.peekSubtask(subtaskId).toStringFile(),
+                    restored.getSubtask(subtaskId).toStringFile(),
+                    "Повторное создание не должно менять сохраненную подзадачу в режиме " + saveMode);
+            assertEquals("Исходная", restored.getTask(taskId).getDescription(), "Некорректное описание задачи");
+        }
+    }
 }
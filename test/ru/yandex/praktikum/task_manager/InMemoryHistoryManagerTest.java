@@ -2,15 +2,22 @@ package ru.yandex.praktikum.task_manager;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.praktikum.exceptions.NotFoundException;
 import ru.yandex.praktikum.task_tracker.Epic;
 import ru.yandex.praktikum.task_tracker.Subtask;
 import ru.yandex.praktikum.task_tracker.Task;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryHistoryManagerTest {
@@ -131,4 +138,108 @@ class InMemoryHistoryManagerTest {
         assertEquals(epic, history.getFirst(), "Первым в списке должен быть эпик");
         assertEquals(task, history.getLast(), "Последней в списке должна быть задача");
     }
+
+    @Test
+    void whenMaxEntriesExceededThenLeastRecentlyViewedTaskEvicted() {
+        HistorySettings settings = new HistorySettings();
+        settings.setMaxEntries(2);
+        historyManager = Managers.getHistory(settings);
+
+        historyManager.add(epic);
+        historyManager.add(task);
+        historyManager.add(epic);
+        historyManager.add(subtask);
+        history = historyManager.getHistory();
+
+        assertEquals(List.of(epic, subtask), history, "Должна быть вытеснена задача, которую дольше всех не смотрели");
+    }
+
+    @Test
+    void whenMaxAgeExpiredThenTaskEvicted() {
+        MutableClock clock = new MutableClock();
+        HistorySettings settings = new HistorySettings();
+        settings.setMaxAge(Duration.ofMinutes(10));
+        settings.setClock(clock);
+        historyManager = Managers.getHistory(settings);
+
+        historyManager.add(epic);
+        clock.advance(Duration.ofMinutes(6));
+        historyManager.add(task);
+        clock.advance(Duration.ofMinutes(6));
+        history = historyManager.getHistory();
+
+        assertEquals(List.of(task), history, "Просмотр старше ограничения должен пропасть из истории");
+
+        historyManager.add(task);
+        clock.advance(Duration.ofMinutes(6));
+
+        assertEquals(List.of(task), historyManager.getHistory(), "Повторный просмотр должен продлевать запись");
+    }
+
+    @Test
+    void whenPerClientHistoryThenClientsSeeOnlyOwnViews() {
+        HistorySettings settings = new HistorySettings();
+        settings.setPerClient(true);
+        settings.setMaxEntries(1);
+        historyManager = Managers.getHistory(settings);
+
+        try {
+            PerClientHistoryManager.setCurrentClient("first");
+            historyManager.add(epic);
+            historyManager.add(task);
+            PerClientHistoryManager.setCurrentClient("second");
+            historyManager.add(subtask);
+
+            assertEquals(List.of(subtask), historyManager.getHistory(), "Некорректная история второго клиента");
+
+            historyManager.remove(task.getId());
+            PerClientHistoryManager.setCurrentClient("first");
+
+            assertTrue(historyManager.getHistory().isEmpty(), "Удаленная задача должна пропасть у всех клиентов");
+        } finally {
+            PerClientHistoryManager.clearCurrentClient();
+        }
+        assertTrue(historyManager.getHistory().isEmpty(), "Общая история должна быть пустой");
+    }
+
+    @Test
+    void whenGetHistoryPageThenReturnTasksAfterCursor() {
+        historyManager.add(epic);
+        historyManager.add(task);
+        historyManager.add(subtask);
+
+        assertEquals(List.of(epic, task), historyManager.getHistory(null, 2, false),
+                "Некорректная первая страница от старых к новым");
+        assertEquals(List.of(subtask), historyManager.getHistory(task.getId(), 2, false),
+                "Некорректная страница после курсора");
+        assertEquals(List.of(subtask, task), historyManager.getHistory(null, 2, true),
+                "Некорректная первая страница от новых к старым");
+        assertEquals(List.of(epic), historyManager.getHistory(task.getId(), 2, true),
+                "Некорректная страница после курсора от новых к старым");
+        assertThrows(NotFoundException.class, () -> historyManager.getHistory(UUID.randomUUID(), 2, true),
+                "Для курсора вне истории должно быть выброшено исключение");
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant = Instant.now();
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
 }
\ No newline at end of file
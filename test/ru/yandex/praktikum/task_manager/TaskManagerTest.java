@@ -6,7 +6,9 @@ import ru.yandex.praktikum.task_tracker.Epic;
 import ru.yandex.praktikum.task_tracker.Statuses;
 import ru.yandex.praktikum.task_tracker.Subtask;
 import ru.yandex.praktikum.task_tracker.Task;
+import ru.yandex.praktikum.task_tracker.TaskTypes;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -62,6 +64,55 @@ public abstract class TaskManagerTest<T extends TaskManager> {
                 "В случае пересечения 2-х задач, должна остаться только одна");
     }
 
+    @Test
+    void whenAddedTaskBetweenTwoTasksThenTaskIsCreated() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        Task task3 = new Task("Купить торт", "К чаю", current.plusMinutes(durationInMinutes),
+                60 - durationInMinutes);
+
+        assertNotNull(taskManager.createTask(task3), "Задача в свободном промежутке должна быть создана");
+        assertEquals(3, taskManager.getPrioritizedTasks().size(),
+                "Некорректное количество задач в сортированном списке");
+    }
+
+    @Test
+    void whenAddedTaskInsideLongTaskThenThrowException() {
+        task1.setDuration(180L);
+        taskManager.createTask(task1);
+        Task task3 = new Task("Купить торт", "К чаю", current.plusHours(2), durationInMinutes);
+
+        assertThrows(NotFoundException.class,
+                () -> taskManager.createTask(task3), "Выбррошено некорректное исключение");
+        assertEquals(1, taskManager.getTasks().size(), "Пересекающаяся задача не должна быть добавлена");
+    }
+
+    @Test
+    void whenTaskWithoutDurationStartsInsideLongTaskThenTaskIsCreatedWithoutSchedule() {
+        task1.setDuration(180L);
+        taskManager.createTask(task1);
+        Task task3 = new Task("Купить торт", "К чаю", current.plusHours(2), 0L);
+
+        assertNotNull(taskManager.createTask(task3), "Задача без продолжительности не занимает времени в расписании");
+        assertEquals(2, taskManager.getTasks().size(), "Некорректное количество задач в списке");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(),
+                "Задача без продолжительности не должна попадать в сортированный список");
+    }
+
+    @Test
+    void whenUpdatedTaskOverlapsOnlyItselfThenTaskIsUpdated() {
+        UUID taskId = taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        Task updatedTask = new Task("Позвонить другу", "Перенести встречу", taskId, Statuses.NEW,
+                current.plusMinutes(5), durationInMinutes);
+        taskManager.updateTask(updatedTask);
+
+        assertEquals(current.plusMinutes(5), taskManager.getPrioritizedTasks().getFirst().getStartTime(),
+                "Время начала задачи не было обновлено");
+        assertEquals(EXPECTED_TASK_COUNT, taskManager.getPrioritizedTasks().size(),
+                "Некорректное количество задач в сортированном списке");
+    }
+
     @Test
     void whenAddedIntersectionsTaskAndSubtaskThenReturnOnlyOne() {
         taskManager.createTask(task1);
@@ -377,6 +428,38 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(expectedEndTime, epic.getEndTime(), "Некорректное время завершения эпика");
     }
 
+    @Test
+    void whenSubtasksRemovedThenEpicTimeAndStatusRecalculated() {
+        taskManager.createEpic(epic1);
+        Subtask subtask = new Subtask("Взять молоко", "Для кашки", current, durationInMinutes, epic1);
+        Subtask subtask1 = new Subtask("Взять сливу", "Для радости", current.plusHours(1),
+                durationInMinutes, epic1);
+        Subtask subtask2 = new Subtask("Взять масло", "Для хлебушка", current.plusHours(2),
+                durationInMinutes, epic1);
+        UUID subtaskId = taskManager.createSubtask(subtask);
+        taskManager.createSubtask(subtask1);
+        UUID subtask2Id = taskManager.createSubtask(subtask2);
+        subtask1.setStatus(Statuses.DONE);
+        taskManager.updateSubtask(subtask1);
+
+        assertEquals(Statuses.IN_PROGRESS, epic1.getStatus(), "Некорректный статус эпика");
+
+        taskManager.removeSubtask(subtaskId);
+        taskManager.removeSubtask(subtask2Id);
+
+        assertEquals(Statuses.DONE, epic1.getStatus(), "Некорректный статус эпика после удаления подзадач");
+        assertEquals(current.plusHours(1), epic1.getStartTime(), "Некорректное время начала эпика");
+        assertEquals(durationInMinutes, epic1.getDuration().toMinutes(), "Некорректная продолжительность эпика");
+        assertEquals(current.plusHours(1).plusMinutes(durationInMinutes), epic1.getEndTime(),
+                "Некорретное время завершения эпика");
+
+        taskManager.removeSubtask(subtask1.getId());
+
+        assertEquals(Statuses.NEW, epic1.getStatus(), "Эпик без подзадач должен быть в статусе NEW");
+        assertNull(epic1.getStartTime(), "Время старта эпика должно быть пустым");
+        assertNull(epic1.getEndTime(), "Время завершения эпика должно быть пустым");
+    }
+
     @Test
     void checkChangeEpicDurationAfterDeleteAndUpdateSubtasks() {
         taskManager.createEpic(epic1);
@@ -412,7 +495,7 @@ public abstract class TaskManagerTest<T extends TaskManager> {
 
         assertEquals(expectedStartTime, epicUpdated.getStartTime(),
                 "Был произведен некорректный перерасчет старта эпика");
-        assertEquals(expectedDuration, epic.getDuration().toMinutes(), "Некорректная продолжительность эпика");
+        assertEquals(expectedDuration, epicUpdated.getDuration().toMinutes(), "Некорректная продолжительность эпика");
         assertEquals(expectedEndTime, epicUpdated.getEndTime(),
                 "Был произведен некорректный перерасчет окончания эпика");
     }
@@ -440,9 +523,9 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         UUID epicId = taskManager.createEpic(epic1);
         Subtask subtask = new Subtask("Взять молоко", "Для кашки", current, durationInMinutes, epic1);
         UUID subtaskId = taskManager.createSubtask(subtask);
-        Epic linkedEpic = taskManager.getEpic(epicId);
 
         assertTrue(taskManager.removeSubtask(subtaskId), "Подзадача не была удалена");
+        Epic linkedEpic = taskManager.getEpic(epicId);
         assertTrue(linkedEpic.getIdSubtasks().isEmpty(),
                 "Подзадача не была удалена из списка в связанном эпике");
     }
@@ -518,6 +601,21 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertTrue(history.isEmpty(), "Подзадачи должны быть удалены из истории вместе в эпиком");
     }
 
+    @Test
+    void whenPeekTasksThenHistoryIsNotChanged() {
+        UUID epicId = taskManager.createEpic(epic1);
+        UUID taskId = taskManager.createTask(task1);
+        Subtask subtask = new Subtask("Взять молоко", "Для кашки", current.plusHours(1), durationInMinutes, epic1);
+        UUID subtaskId = taskManager.createSubtask(subtask);
+
+        assertEquals(epic1, taskManager.peekEpic(epicId), "Получен некорректный эпик");
+        assertEquals(task1, taskManager.peekTask(taskId), "Получена некорректная задача");
+        assertEquals(subtask, taskManager.peekSubtask(subtaskId), "Получена некорректная подзадача");
+        assertThrows(NotFoundException.class,
+                () -> taskManager.peekTask(UUID.randomUUID()), "Выброшена некорректная ошибка");
+        assertTrue(taskManager.getTaskHistory().isEmpty(), "Чтение без истории не должно попадать в историю");
+    }
+
     @Test
     void whenGetTaskByUnknownIdThenReturnEmptyHistory() {
         assertThrows(NotFoundException.class,
@@ -611,4 +709,154 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(subtask, tasks.getFirst(), "Некорректная задача вначале сортированного списка");
         assertEquals(subtask1, tasks.getLast(), "Некорректная задача в конце сортированного списка");
     }
+
+    @Test
+    void whenBatchSwapsTwoTasksThenBothAreMovedTogether() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        Task movedTask1 = new Task(task1.getName(), task1.getDescription(), task1.getId(), Statuses.IN_PROGRESS,
+                task2.getStartTime(), durationInMinutes);
+        Task movedTask2 = new Task(task2.getName(), task2.getDescription(), task2.getId(), Statuses.NEW,
+                task1.getStartTime(), durationInMinutes);
+        Task newTask = new Task("Купить торт", "К чаю", current.plusHours(2), durationInMinutes);
+
+        List<UUID> ids = taskManager.applyBatch(List.of(BatchCommand.update(movedTask1),
+                BatchCommand.update(movedTask2), BatchCommand.create(newTask)));
+
+        assertEquals(List.of(task1.getId(), task2.getId(), newTask.getId()), ids, "Некорректные id команд пакета");
+        assertEquals(List.of(movedTask2, movedTask1, newTask), taskManager.getPrioritizedTasks(),
+                "Задачи должны поменяться местами в расписании");
+        assertEquals(task2.getStartTime(), taskManager.peekTask(task1.getId()).getStartTime(),
+                "Задача должна получить новое время");
+    }
+
+    @Test
+    void whenBatchHasIntersectionThenNothingIsApplied() {
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        Subtask subtask = new Subtask("Взять молоко", "Для кашки", current.plusHours(2), durationInMinutes, epic1);
+        Subtask overlapping = new Subtask("Взять сливу", "Для радости", current.plusHours(2).plusMinutes(10),
+                durationInMinutes, epic1);
+
+        assertThrows(NotFoundException.class, () -> taskManager.applyBatch(List.of(
+                BatchCommand.delete(TaskTypes.TASK, task1.getId()), BatchCommand.create(subtask),
+                BatchCommand.create(overlapping))), "Пакет с пересечением должен быть отклонен");
+        assertThrows(NotFoundException.class, () -> taskManager.applyBatch(List.of(
+                BatchCommand.create(new Task("Погладить рубашку", "К вечеру", current.plusMinutes(5),
+                        durationInMinutes)))), "Пакет не должен пересекаться с существующими задачами");
+
+        assertEquals(List.of(task1), taskManager.getTasks(), "Задачи не должны измениться");
+        assertTrue(taskManager.getSubtasks().isEmpty(), "Подзадачи не должны создаться");
+        assertEquals(List.of(task1), taskManager.getPrioritizedTasks(), "Расписание не должно измениться");
+    }
+
+    @Test
+    void whenBatchDeletesEpicThenItsSubtasksCannotBeChanged() {
+        taskManager.createEpic(epic1);
+        taskManager.createEpic(epic2);
+        Subtask subtask = new Subtask("Взять молоко", "Для кашки", current, durationInMinutes, epic1);
+        taskManager.createSubtask(subtask);
+
+        NotFoundException exception = assertThrows(NotFoundException.class, () -> taskManager.applyBatch(List.of(
+                BatchCommand.delete(TaskTypes.SUBTASK, subtask.getId()),
+                BatchCommand.delete(TaskTypes.EPIC, epic1.getId()))), "Выброшено некорректное исключение");
+
+        assertEquals(400, exception.getStatusCode(), "Некорректный код ошибки");
+        assertEquals(2, taskManager.getEpicTasks().size(), "Эпики не должны удалиться");
+
+        List<UUID> ids = taskManager.applyBatch(List.of(BatchCommand.delete(TaskTypes.EPIC, epic1.getId()),
+                BatchCommand.create(new Subtask("Взять сливу", "Для радости", current, durationInMinutes, epic2))));
+
+        assertEquals(List.of(epic2), taskManager.getEpicTasks(), "Эпик должен удалиться");
+        assertEquals(List.of(ids.get(1)), List.copyOf(taskManager.peekEpic(epic2.getId()).getIdSubtasks()),
+                "Подзадача должна занять освободившееся время");
+        assertEquals(Statuses.NEW, taskManager.peekEpic(epic2.getId()).getStatus(), "Некорректный статус эпика");
+        assertEquals(current, taskManager.peekEpic(epic2.getId()).getStartTime(), "Время эпика должно пересчитаться");
+    }
+
+    @Test
+    void whenRequestedTimeWindowThenReturnOnlyTasksInsideIt() {
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        Subtask subtask = new Subtask("Взять молоко", "Для кашки", current.plusHours(2), durationInMinutes, epic1);
+        taskManager.createSubtask(subtask);
+
+        assertEquals(List.of(task1, task2), taskManager.getPrioritizedTasks(current.plusMinutes(5),
+                current.plusHours(2)), "Окно должно включать уже идущую задачу и не включать задачу на его конце");
+        assertEquals(List.of(task2, subtask), taskManager.getPrioritizedTasks(current.plusMinutes(15), null),
+                "Закончившаяся к началу окна задача не должна попадать в окно");
+        assertEquals(List.of(task1), taskManager.getPrioritizedTasks(null, current.plusHours(1)),
+                "Некорректные задачи в окне без начала");
+        assertTrue(taskManager.getPrioritizedTasks(current.plusHours(3), current.plusHours(4)).isEmpty(),
+                "Пустое окно должно вернуть пустой список");
+        assertThrows(NotFoundException.class, () -> taskManager.getPrioritizedTasks(current, current.minusHours(1)),
+                "Окно с концом раньше начала должно быть отклонено");
+    }
+
+    @Test
+    void whenRequestedTimeWindowWithLimitThenReturnFirstTasksOfWindow() {
+        taskManager.createEpic(epic1);
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        Subtask subtask = new Subtask("Взять молоко", "Для кашки", current.plusHours(2), durationInMinutes, epic1);
+        taskManager.createSubtask(subtask);
+
+        assertEquals(List.of(task1, task2), taskManager.getPrioritizedTasks(current.plusMinutes(5), null, 2),
+                "Окно должно обрезаться до первых задач, включая уже идущую");
+        assertEquals(List.of(task1), taskManager.getPrioritizedTasks(current.plusMinutes(5), null, 1),
+                "Лимит должен учитывать уже идущую задачу");
+        assertEquals(List.of(task2), taskManager.getPrioritizedTasks(current.plusMinutes(15),
+                current.plusHours(2), 5), "Лимит больше окна не должен добавлять задачи за его концом");
+        assertTrue(taskManager.getPrioritizedTasks(null, null, 0).isEmpty(),
+                "При нулевом лимите список должен быть пустым");
+        assertThrows(NotFoundException.class, () -> taskManager.getPrioritizedTasks(current,
+                current.minusHours(1), 1), "Окно с концом раньше начала должно быть отклонено");
+    }
+
+    @Test
+    void whenRequestedUpcomingThenReturnNearestUnfinishedTasks() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        Task task3 = new Task("Купить торт", "К чаю", current.plusHours(2), durationInMinutes);
+        taskManager.createTask(task3);
+
+        assertEquals(List.of(task1, task2), taskManager.getUpcoming(current.plusMinutes(10), 2),
+                "Идущая задача должна быть первой среди ближайших");
+        assertEquals(List.of(task3), taskManager.getUpcoming(current.plusHours(1).plusMinutes(15), 5),
+                "Закончившиеся задачи не должны попадать в ближайшие");
+        assertTrue(taskManager.getUpcoming(current, 0).isEmpty(), "При нулевом лимите список должен быть пустым");
+    }
+
+    @Test
+    void whenSearchedFreeSlotThenReturnEarliestGapThatFits() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+        Task task3 = new Task("Купить торт", "К чаю", current.plusMinutes(20), durationInMinutes);
+        taskManager.createTask(task3);
+
+        assertEquals(current.plusMinutes(35), taskManager.findFreeSlot(Duration.ofMinutes(10), current, null),
+                "Слишком короткий промежуток должен быть пропущен");
+        assertEquals(current.plusMinutes(35), taskManager.findFreeSlot(Duration.ofMinutes(25), current, null),
+                "Задача должна помещаться в промежуток точно по длительности");
+        assertEquals(current.plusMinutes(75), taskManager.findFreeSlot(Duration.ofMinutes(30), current, null),
+                "Не поместившаяся задача должна встать после последней");
+        assertEquals(current.plusMinutes(15), taskManager.findFreeSlot(Duration.ofMinutes(5), current.plusMinutes(5),
+                null), "Свободное время должно начинаться после идущей задачи");
+        assertEquals(current.plusHours(2), taskManager.findFreeSlot(Duration.ofMinutes(15), current.plusHours(2),
+                null), "После всех задач свободно сразу с notBefore");
+    }
+
+    @Test
+    void whenFreeSlotDoesNotFitBeforeLimitThenThrowException() {
+        taskManager.createTask(task1);
+        taskManager.createTask(task2);
+
+        assertEquals(current.plusMinutes(15), taskManager.findFreeSlot(Duration.ofMinutes(45), current,
+                current.plusHours(1)), "Промежуток, заканчивающийся на notAfter, должен подходить");
+        assertThrows(NotFoundException.class, () -> taskManager.findFreeSlot(Duration.ofMinutes(50), current,
+                current.plusHours(2)), "Свободного времени до notAfter нет");
+        assertThrows(NotFoundException.class, () -> taskManager.findFreeSlot(Duration.ZERO, current, null),
+                "Нулевая длительность должна быть отклонена");
+    }
 }
@@ -6,29 +6,38 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.yandex.praktikum.task_manager.InMemoryTaskManager;
+import ru.yandex.praktikum.task_manager.Managers;
 import ru.yandex.praktikum.task_manager.TaskManager;
+import ru.yandex.praktikum.task_server.task_handlers.TaskHandler;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
 import ru.yandex.praktikum.task_server.task_serializers.TaskDurationAdapter;
-import ru.yandex.praktikum.task_server.task_serializers.TaskStartTimeDeserializer;
-import ru.yandex.praktikum.task_server.task_serializers.TaskStartTimeSerializer;
+import ru.yandex.praktikum.task_server.task_serializers.TaskStartTimeAdapter;
 import ru.yandex.praktikum.task_tracker.Epic;
 import ru.yandex.praktikum.task_tracker.Subtask;
 import ru.yandex.praktikum.task_tracker.Task;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static ru.yandex.praktikum.Constants.BAD_REQUEST;
 import static ru.yandex.praktikum.Constants.CREATED_OK;
@@ -53,8 +62,7 @@ public class HttpTaskServerTest {
     private final Task task = new Task("Позвонить другу", "Уточнить место встречи", current,
             durationInMinutes);
     private final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDateTime.class, new TaskStartTimeSerializer())
-            .registerTypeAdapter(LocalDateTime.class, new TaskStartTimeDeserializer())
+            .registerTypeAdapter(LocalDateTime.class, new TaskStartTimeAdapter().nullSafe())
             .registerTypeAdapter(Duration.class, new TaskDurationAdapter())
             .setPrettyPrinting()
             .create();
@@ -156,6 +164,23 @@ public class HttpTaskServerTest {
         assertEquals(expectedDescription, updatedTask.getDescription(), "Описание не было изменено");
     }
 
+    @Test
+    void whenSendUpdateTaskWithUnknownStatusThenReturnBadRequest() throws IOException, InterruptedException {
+        UUID taskId = taskManager.createTask(task);
+        JsonObject body = gson.toJsonTree(taskManager.getTask(taskId)).getAsJsonObject();
+        body.addProperty("status", "POSTPONED");
+        body.addProperty("priority", 1);
+        URI url = URI.create("http://localhost:8080/tasks");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(BAD_REQUEST, response.statusCode(), "Некорректный статус код ответа");
+        assertEquals(task.getStatus(), taskManager.getTask(taskId).getStatus(), "Статус не должен измениться");
+    }
+
     @Test
     void whenSendDeleteTaskThenTaskMustDeletedFromList() throws IOException, InterruptedException {
         UUID taskId = taskManager.createTask(task);
@@ -512,6 +537,41 @@ public class HttpTaskServerTest {
         assertEquals(subtaskId.toString(), thirdSubtaskId, "Из истории была получена некорректная подзадача");
     }
 
+    @Test
+    void whenSendGetHistoryWithLimitAndAfterThenReturnPage() throws IOException, InterruptedException {
+        UUID taskId = taskManager.createTask(task);
+        UUID epicId = taskManager.createEpic(epic);
+        UUID subtaskId = taskManager.createSubtask(new Subtask("Взять молоко", "Для кашки",
+                current.plusMinutes(durationInMinutes), durationInMinutes, epic));
+        taskManager.getTask(taskId);
+        taskManager.getEpic(epicId);
+        taskManager.getSubtask(subtaskId);
+
+        URI url = URI.create("http://localhost:8080/history?limit=1&after=" + subtaskId + "&newestFirst=true");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(SUCCESS, response.statusCode(), "Некорректный статус код ответа");
+
+        JsonArray jsonArray = JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray(HISTORY);
+        int expectedCountTasks = 1;
+        assertEquals(expectedCountTasks, jsonArray.size(), "Некорректное количество элементов на странице");
+        assertEquals(epicId.toString(), jsonArray.get(0).getAsJsonObject().get("id").getAsString(),
+                "После подзадачи от новых к старым должен идти эпик");
+
+        url = URI.create("http://localhost:8080/history?limit=0");
+        request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(BAD_REQUEST, response.statusCode(), "Некорректный статус код ответа");
+    }
+
     @Test
     void whenSendGetPrioritizedThenReturnSortedListOfTasks() throws IOException, InterruptedException {
         UUID taskId = taskManager.createTask(task);
@@ -539,4 +599,240 @@ public class HttpTaskServerTest {
         assertEquals(subtaskId.toString(), firstSubtaskId, "Первой в списке должна идти подзадача");
         assertEquals(taskId.toString(), secondTaskId, "Второй в списке должна идти задача");
     }
+
+    @Test
+    void whenServerUsesVirtualThreadsThenParallelRequestsAreHandled() throws Exception {
+        int requestsCount = 20;
+        TaskManager concurrentManager = Managers.getConcurrent();
+        ServerSettings settings = new ServerSettings();
+        settings.setPort(8081);
+        settings.setBacklog(requestsCount);
+        settings.setExecutionMode(ExecutionMode.VIRTUAL_THREADS);
+        HttpTaskServer parallelServer = new HttpTaskServer(concurrentManager, settings);
+        parallelServer.serverStart();
+        try {
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < requestsCount; i++) {
+                Task newTask = new Task("Задача " + i, "Параллельная", current.plusHours(i), durationInMinutes);
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:8081/tasks"))
+                        .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(newTask)))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(SUCCESS, response.get().statusCode(), "Некорректный статус код ответа");
+            }
+        } finally {
+            parallelServer.serverStop();
+        }
+
+        assertEquals(requestsCount, concurrentManager.getTasks().size(),
+                "Все параллельные запросы должны создать задачи");
+    }
+
+    @Test
+    void whenRequestCompactFormatThenResponseHasNoWhitespace() throws IOException, InterruptedException {
+        UUID taskId = taskManager.createTask(task);
+        URI url = URI.create(String.format("http://localhost:8080/tasks/%s?pretty=false", taskId));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> prettyResponse = client.send(HttpRequest.newBuilder()
+                .uri(URI.create(String.format("http://localhost:8080/tasks/%s", taskId)))
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(SUCCESS, response.statusCode(), "Некорректный статус код ответа");
+        assertFalse(response.body().contains("\n"), "Компактный ответ не должен содержать переносов строк");
+        assertTrue(prettyResponse.body().length() > response.body().length(),
+                "Компактный ответ должен быть короче форматированного");
+        assertEquals(JsonParser.parseString(prettyResponse.body()), JsonParser.parseString(response.body()),
+                "Содержимое ответов должно совпадать");
+    }
+
+    @Test
+    void whenSendBatchRequestThenAllCommandsAreApplied() throws IOException, InterruptedException {
+        UUID epicId = taskManager.createEpic(epic);
+        UUID taskId = taskManager.createTask(task);
+        JsonArray commands = new JsonArray();
+        JsonObject createSubtask = gson.toJsonTree(new Subtask("Взять молоко", "Для кашки", current,
+                durationInMinutes, epic)).getAsJsonObject();
+        createSubtask.addProperty("operation", "CREATE");
+        createSubtask.addProperty("type", "SUBTASK");
+        JsonObject deleteTask = new JsonObject();
+        deleteTask.addProperty("operation", "DELETE");
+        deleteTask.addProperty("type", "TASK");
+        deleteTask.addProperty("id", taskId.toString());
+        commands.add(createSubtask);
+        commands.add(deleteTask);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(commands.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(SUCCESS, response.statusCode(), "Некорректный статус код ответа");
+
+        JsonArray ids = JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray("ids");
+        UUID subtaskId = UUID.fromString(ids.get(0).getAsString());
+
+        assertEquals(taskId.toString(), ids.get(1).getAsString(), "Некорректный id удаленной задачи");
+        assertTrue(taskManager.getTasks().isEmpty(), "Задача должна быть удалена");
+        assertEquals(epicId, taskManager.getSubtask(subtaskId).getEpicId(), "Подзадача должна быть создана в эпике");
+    }
+
+    @Test
+    void whenSendIntersectingBatchThenNothingIsApplied() throws IOException, InterruptedException {
+        taskManager.createTask(task);
+        JsonArray commands = new JsonArray();
+        for (int i = 0; i < 2; i++) {
+            JsonObject createTask = gson.toJsonTree(new Task("Задача " + i, "Из пакета", current.plusHours(1),
+                    durationInMinutes)).getAsJsonObject();
+            createTask.addProperty("operation", "CREATE");
+            createTask.addProperty("type", "TASK");
+            commands.add(createTask);
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(commands.toString()))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(406, response.statusCode(), "Некорректный статус код ответа");
+        assertEquals(1, taskManager.getTasks().size(), "Задачи пакета не должны создаться");
+    }
+
+    @Test
+    void whenSendPrioritizedWindowRequestThenReturnTasksInWindow() throws IOException, InterruptedException {
+        taskManager.createTask(task);
+        UUID laterTaskId = taskManager.createTask(new Task("Поставить чайник", "Гостям нужен чайок",
+                current.plusHours(1), durationInMinutes));
+        URI url = URI.create(String.format("http://localhost:8080/prioritized?from=%s&limit=1",
+                current.plusMinutes(30)));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(SUCCESS, response.statusCode(), "Некорректный статус код ответа");
+
+        JsonArray jsonArray = JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray(PRIORITIZED);
+
+        assertEquals(1, jsonArray.size(), "Некорректное количество задач в окне");
+        assertEquals(laterTaskId.toString(), jsonArray.get(0).getAsJsonObject().get("id").getAsString(),
+                "Была получена некорректная задача");
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/prioritized?from=tomorrow"))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(BAD_REQUEST, response.statusCode(), "Некорректная дата должна вернуть ошибку");
+    }
+
+    @Test
+    void whenSendFreeSlotRequestThenReturnEarliestFreeStart() throws IOException, InterruptedException {
+        taskManager.createTask(task);
+        URI url = URI.create(String.format("http://localhost:8080/prioritized/free?duration=%d&notBefore=%s",
+                durationInMinutes, current));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(SUCCESS, response.statusCode(), "Некорректный статус код ответа");
+
+        String startTime = JsonParser.parseString(response.body()).getAsJsonObject().get("startTime").getAsString();
+        assertEquals(current.plusMinutes(durationInMinutes), LocalDateTime.parse(startTime),
+                "Свободное время должно начинаться после задачи");
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create(String.format("http://localhost:8080/prioritized/free?duration=%d&notBefore=%s"
+                        + "&notAfter=%s", durationInMinutes, current, current.plusMinutes(20))))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(NOT_FOUND, response.statusCode(), "Без свободного времени должна вернуться ошибка");
+    }
+
+    @Test
+    void whenSendIntersectingTaskThenReturnConflictsAndFreeSlot() throws IOException, InterruptedException {
+        UUID taskId = taskManager.createTask(task);
+        String body = gson.toJson(new Task("Поставить чайник", "Гостям нужен чайок", current.plusMinutes(5),
+                durationInMinutes));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(406, response.statusCode(), "Некорректный статус код ответа");
+
+        JsonObject object = JsonParser.parseString(response.body()).getAsJsonObject();
+        JsonArray conflicts = object.getAsJsonArray("conflicts");
+        assertEquals(1, conflicts.size(), "Некорректное количество пересечений");
+        assertEquals(taskId.toString(), conflicts.get(0).getAsJsonObject().get("id").getAsString(),
+                "Была получена некорректная задача");
+        assertEquals(current.plusMinutes(durationInMinutes),
+                LocalDateTime.parse(object.get("startTime").getAsString()), "Некорректное свободное время");
+        assertEquals(1, taskManager.getTasks().size(), "Пересекающаяся задача не должна создаться");
+    }
+
+    @Test
+    void whenListSerializationFailsThenHandlerDoesNotSendSecondResponse() throws IOException, InterruptedException {
+        TaskManager failingManager = new InMemoryTaskManager() {
+            @Override
+            public List<Task> getTasks() {
+                return new AbstractList<>() {
+                    @Override
+                    public Task get(int index) {
+                        if (index > 0) {
+                            throw new IllegalStateException("Сбой посреди списка");
+                        }
+                        return task;
+                    }
+
+                    @Override
+                    public int size() {
+                        return 2;
+                    }
+                };
+            }
+        };
+        TaskHandler handler = new TaskHandler(failingManager, JsonFormat.COMPACT);
+        List<Exception> handlerErrors = new CopyOnWriteArrayList<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/tasks", exchange -> {
+            try {
+                handler.handle(exchange);
+            } catch (IOException | RuntimeException e) {
+                handlerErrors.add(e);
+                throw e;
+            }
+        });
+        server.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + server.getAddress().getPort() + "/tasks"))
+                    .GET()
+                    .build();
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                assertFalse(response.body().endsWith("]}"), "Оборванный список не должен выглядеть как полный ответ");
+            } catch (IOException e) {
+                // Обрыв соединения тоже допустим: заголовки уже отправлены, сообщить об ошибке иначе нельзя
+            }
+        } finally {
+            server.stop(0);
+        }
+
+        assertTrue(handlerErrors.isEmpty(), "Обработчик не должен пытаться отправить второй ответ");
+    }
 }
@@ -25,7 +25,7 @@ class EpicTest {
 
         assertTrue(epic.addSubtask(subtaskId), "Значение id подзадачи не было добавлено в список");
         assertEquals(expectedSubtaskCount, epic.getIdSubtasks().size(), "Некорректное количество id в списке");
-        assertEquals(subtaskId, epic.getIdSubtasks().getFirst(), "Некорректное значение в списке подзадач");
+        assertEquals(subtaskId, epic.getIdSubtasks().iterator().next(), "Некорректное значение в списке подзадач");
     }
 
     @Test
@@ -35,4 +35,15 @@ class EpicTest {
 
         assertFalse(epic.addSubtask(epicId), "Сам епик не может быть добавлен в список подзадач");
     }
+
+    @Test
+    void whenAddSameSubtaskTwiceThenFalse() {
+        int expectedSubtaskCount = 1;
+        UUID subtaskId = UUID.randomUUID();
+        epic.setId(UUID.randomUUID());
+        epic.addSubtask(subtaskId);
+
+        assertFalse(epic.addSubtask(subtaskId), "Id подзадачи не может быть добавлен повторно");
+        assertEquals(expectedSubtaskCount, epic.getIdSubtasks().size(), "Некорректное количество id в списке");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package ru.yandex.praktikum.task_tracker;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.praktikum.task_server.task_serializers.GsonProvider;
+import ru.yandex.praktikum.task_server.task_serializers.JsonFormat;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskTest {
+    private final LocalDateTime current = LocalDateTime.of(2024, 1, 1, 10, 0, 0, 500);
+
+    @Test
+    void whenTimeOrDurationChangedThenEndTimeIsRecalculated() {
+        Task task = new Task("Позвонить другу", "Уточнить место встречи", current, 15L);
+
+        assertEquals(current.plusMinutes(15), task.getEndTime(), "Некорректное время окончания");
+
+        task.setStartTime(current.plusHours(1));
+        task.setDuration(30L);
+
+        assertEquals(current.plusHours(1).plusMinutes(30), task.getEndTime(), "Время окончания не пересчиталось");
+
+        task.setDuration(0L);
+
+        assertNull(task.getEndTime(), "У задачи без продолжительности нет окончания");
+    }
+
+    @Test
+    void whenIntervalsTouchOrDifferInNanosThenOverlapIsExact() {
+        Task task = new Task("Позвонить другу", "Уточнить место встречи", current, 15L);
+        Task next = new Task("Поставить чайник", "Гостям нужен чайок", current.plusMinutes(15), 15L);
+        Task early = new Task("Купить торт", "К чаю", current.plusMinutes(15).minusNanos(1), 15L);
+
+        assertFalse(task.overlaps(next), "Задачи, идущие друг за другом, не пересекаются");
+        assertTrue(task.overlaps(early), "Пересечение на одну наносекунду должно учитываться");
+        assertFalse(task.overlaps(new Task("Без времени", "Описание", null, 15L)),
+                "Задача без времени ни с чем не пересекается");
+    }
+
+    @Test
+    void whenDatesOutsideNanosRangeThenComparisonFallsBackToDates() {
+        LocalDateTime far = LocalDateTime.of(3000, 1, 1, 10, 0);
+        Task task = new Task("Позвонить другу", "Уточнить место встречи", far, 15L);
+        Task inside = new Task("Купить торт", "К чаю", far.plusMinutes(10), 15L);
+
+        assertTrue(task.overlaps(inside), "Пересечение должно определяться и для дат вне диапазона long");
+        assertTrue(new Task("Поставить чайник", "Гостям нужен чайок", current, 15L).compareStartTime(task) < 0,
+                "Некорректный порядок задач по началу");
+    }
+
+    @Test
+    void whenEpicStartTimeChangedThenEndTimeIsKept() {
+        Epic epic = new Epic("Переезд", "Собрать вещи");
+        epic.setEndTime(current.plusHours(3));
+        epic.setStartTime(current);
+        epic.setDuration(30L);
+
+        assertEquals(current.plusHours(3), epic.getEndTime(), "Окончание эпика задается по подзадачам");
+        assertTrue(epic.overlaps(new Task("Купить торт", "К чаю", current.plusHours(2), 15L)),
+                "Эпик должен пересекаться по своему окончанию, а не по продолжительности");
+    }
+
+    @Test
+    void whenTaskReadFromJsonThenEndTimeIsRecalculated() {
+        String json = String.format("{\"name\":\"Позвонить другу\",\"startTime\":\"%s\",\"duration\":15,"
+                + "\"endTime\":\"%s\"}", current, current.plusHours(5));
+
+        Task task = GsonProvider.getGson(JsonFormat.COMPACT).fromJson(json, Task.class);
+
+        assertEquals(current.plusMinutes(15), task.getEndTime(),
+                "Окончание должно вычисляться по началу и длительности");
+    }
+}